@@ -0,0 +1,35 @@
+package benchmark;
+
+import tools.CorpusGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Temporary corpora of generated class files for the benchmarks.
+ */
+final class BenchmarkCorpus {
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Creates a temporary folder holding a generated corpus of classCount classes, with default shape settings.
+     */
+    static Path create(int classCount) throws IOException {
+        Path folder = Files.createTempDirectory("lint-bench-" + classCount + "-");
+        new CorpusGenerator().classCount(classCount).writeToDirectory(folder);
+        return folder;
+    }
+
+    static void delete(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import datasource.AsmConverter;
+import datasource.DataLoader;
+import domain.LintCheck;
+import domain.Violation;
+import domain.internal_representation.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Each lint check on its own, over an already built context.
+ */
+@State(Scope.Benchmark)
+public class CheckBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int classCount;
+
+    @Param({
+            "EqualsHashCodeCheck",
+            "PublicMutableFieldsCheck",
+            "NamingConventionCheck",
+            "RedundantInterfacesCheck",
+            "CircularDependencyCheck",
+            "GenerateUML",
+            "HasPublicConstructorCheck"
+    })
+    public String checkName;
+
+    private Path corpus;
+    private Context context;
+    private LintCheck check;
+
+    @Setup
+    public void setUp() throws IOException, ReflectiveOperationException {
+        check = (LintCheck) Class.forName("domain." + checkName).getDeclaredConstructor().newInstance();
+
+        // GenerateUML writes its diagram into the corpus folder, so keep the folder until tear down
+        corpus = BenchmarkCorpus.create(classCount);
+        context = new AsmConverter().buildContext(new DataLoader().loadClassFiles(corpus.toString()), corpus.toString(), check.getRequiredDepth());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkCorpus.delete(corpus);
+    }
+
+    @Benchmark
+    public List<Violation> analyze() {
+        return check.analyze(context);
+    }
+}
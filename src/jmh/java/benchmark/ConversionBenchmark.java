@@ -0,0 +1,61 @@
+package benchmark;
+
+import datasource.AsmConverter;
+import datasource.DataLoader;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.DependencyInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turning bytecode into the internal representation: parsing single classes and building the dependency graph.
+ */
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int classCount;
+
+    private final AsmConverter converter = new AsmConverter();
+    private List<byte[]> bytecode;
+    private List<ClassInfo> classes;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path corpus = BenchmarkCorpus.create(classCount);
+        try {
+            bytecode = new ArrayList<>(new DataLoader().loadClassFiles(corpus.toString()).values());
+        } finally {
+            BenchmarkCorpus.delete(corpus);
+        }
+
+        classes = new ArrayList<>();
+        for (byte[] bytes : bytecode) {
+            classes.add(converter.convertClass(bytes));
+        }
+    }
+
+    /**
+     * Parses every class of the corpus once.
+     */
+    @Benchmark
+    public void convertClass(Blackhole blackhole) {
+        for (byte[] bytes : bytecode) {
+            blackhole.consume(converter.convertClass(bytes));
+        }
+    }
+
+    @Benchmark
+    public DependencyInfo convertDependencies() {
+        return converter.convertDependencies(classes);
+    }
+}
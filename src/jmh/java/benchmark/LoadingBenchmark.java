@@ -0,0 +1,43 @@
+package benchmark;
+
+import datasource.DataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Reading a folder of class files from disk, sequentially and in parallel.
+ */
+@State(Scope.Benchmark)
+public class LoadingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int classCount;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path corpus;
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = BenchmarkCorpus.create(classCount);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkCorpus.delete(corpus);
+    }
+
+    @Benchmark
+    public Map<String, byte[]> loadClassFiles() throws IOException {
+        return new DataLoader(parallelism).loadClassFiles(corpus.toString());
+    }
+}
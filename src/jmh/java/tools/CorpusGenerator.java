@@ -0,0 +1,343 @@
+package tools;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Generates synthetic class files for benchmarks and scale testing.
+ *
+ * Every class depends on fanOut distinct other classes (fewer if the corpus is smaller) through its fields, method signatures and local variables.
+ * A fraction cycleDensity of those edges point back to lower-numbered classes and so close cycles; the rest
+ * point forward. Classes form inheritance chains of inheritanceDepth, and each implements one of interfaceCount
+ * interfaces (sometimes the one its superclass already implements). Each class is generated on its own from a seed,
+ * so a corpus is reproducible and is written class by class, without holding it in memory.
+ *
+ * Usage: CorpusGenerator <output folder or .jar> <classCount> [fields=4] [methods=6] [locals=2] [fanOut=4]
+ *        [inheritanceDepth=3] [interfaces=8] [cycleDensity=0.1] [seed=42]
+ */
+public class CorpusGenerator {
+
+    // Keep directories small even for a million classes
+    private static final int CLASSES_PER_PACKAGE = 1000;
+    private static final String ROOT_PACKAGE = "corpus/";
+
+    private int classCount = 1000;
+    private int fieldsPerClass = 4;
+    private int methodsPerClass = 6;
+    private int localsPerMethod = 2;
+    private int fanOut = 4;
+    private int inheritanceDepth = 3;
+    private int interfaceCount = 8;
+    private double cycleDensity = 0.1;
+    private long seed = 42;
+
+    public CorpusGenerator classCount(int classCount) {
+        this.classCount = classCount;
+        return this;
+    }
+
+    public CorpusGenerator fieldsPerClass(int fieldsPerClass) {
+        this.fieldsPerClass = fieldsPerClass;
+        return this;
+    }
+
+    public CorpusGenerator methodsPerClass(int methodsPerClass) {
+        this.methodsPerClass = methodsPerClass;
+        return this;
+    }
+
+    public CorpusGenerator localsPerMethod(int localsPerMethod) {
+        this.localsPerMethod = localsPerMethod;
+        return this;
+    }
+
+    /**
+     * Number of distinct classes each class depends on.
+     */
+    public CorpusGenerator fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /**
+     * Length of the superclass chains; 1 means every class extends Object.
+     */
+    public CorpusGenerator inheritanceDepth(int inheritanceDepth) {
+        this.inheritanceDepth = Math.max(1, inheritanceDepth);
+        return this;
+    }
+
+    public CorpusGenerator interfaceCount(int interfaceCount) {
+        this.interfaceCount = interfaceCount;
+        return this;
+    }
+
+    /**
+     * Fraction (0 to 1) of dependency edges that point backwards and can close a cycle.
+     */
+    public CorpusGenerator cycleDensity(double cycleDensity) {
+        this.cycleDensity = cycleDensity;
+        return this;
+    }
+
+    public CorpusGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Writes the corpus as class files under the given folder, one subfolder per package.
+     */
+    public void writeToDirectory(Path folder) throws IOException {
+        for (int i = 0; i < interfaceCount; i++) {
+            writeFile(folder, interfaceName(i), generateInterface(i));
+        }
+        for (int i = 0; i < classCount; i++) {
+            writeFile(folder, className(i), generateClass(i));
+        }
+    }
+
+    /**
+     * Writes the corpus into a single JAR file.
+     */
+    public void writeToJar(Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(jar)))) {
+            for (int i = 0; i < interfaceCount; i++) {
+                writeEntry(out, interfaceName(i), generateInterface(i));
+            }
+            for (int i = 0; i < classCount; i++) {
+                writeEntry(out, className(i), generateClass(i));
+            }
+        }
+    }
+
+    /**
+     * Writes to a JAR if the path ends in .jar, otherwise to a folder.
+     */
+    public void write(Path output) throws IOException {
+        if (output.getFileName().toString().endsWith(".jar")) {
+            writeToJar(output);
+        } else {
+            writeToDirectory(output);
+        }
+    }
+
+    /**
+     * The bytecode of the index-th class of the corpus.
+     */
+    public byte[] generateClass(int index) {
+        Random random = new Random(seed * 31 + index);
+        String name = className(index);
+        String superName = index % inheritanceDepth == 0 ? "java/lang/Object" : className(index - 1);
+        String[] interfaces = new String[0];
+        if (interfaceCount > 0) {
+            // Now and then a subclass repeats its superclass's interface, which is redundant
+            boolean repeatsParent = index % inheritanceDepth != 0 && random.nextInt(5) == 0;
+            interfaces = new String[] {interfaceName((repeatsParent ? index - 1 : index) % interfaceCount)};
+        }
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, superName, interfaces);
+
+        int[] targetIndices = pickTargets(index, random);
+        String[] targets = new String[targetIndices.length];
+        for (int t = 0; t < targets.length; t++) {
+            targets[t] = descriptor(className(targetIndices[t]));
+        }
+        int next = 0;
+
+        for (int f = 0; f < fieldsPerClass; f++) {
+            // Mix public mutable fields and badly named ones in with well-formed private fields
+            int access = random.nextInt(4) == 0 ? Opcodes.ACC_PUBLIC : Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL;
+            String fieldName = random.nextInt(8) == 0 ? "Bad_Field" + f : "field" + f;
+            writer.visitField(access, fieldName, targets[next++ % targets.length], null, null).visitEnd();
+        }
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        for (int m = 0; m < methodsPerClass; m++) {
+            String type = targets[next++ % targets.length];
+            String methodName = random.nextInt(8) == 0 ? "Process" + m : "process" + m;
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, methodName, "(" + type + ")" + type, null, null);
+            method.visitCode();
+            Label start = new Label();
+            Label end = new Label();
+            method.visitLabel(start);
+            for (int l = 0; l < localsPerMethod; l++) {
+                method.visitInsn(Opcodes.ACONST_NULL);
+                method.visitVarInsn(Opcodes.ASTORE, 2 + l);
+            }
+            method.visitVarInsn(Opcodes.ALOAD, 1);
+            method.visitLabel(end);
+            method.visitInsn(Opcodes.ARETURN);
+            method.visitLocalVariable("this", descriptor(name), null, start, end, 0);
+            method.visitLocalVariable("input", type, null, start, end, 1);
+            for (int l = 0; l < localsPerMethod; l++) {
+                String localName = random.nextInt(8) == 0 ? "temp_Value" + l : "local" + l;
+                method.visitLocalVariable(localName, targets[next++ % targets.length], null, start, end, 2 + l);
+            }
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+
+        // Some classes override equals without hashCode
+        if (random.nextInt(5) == 0) {
+            MethodVisitor equals = writer.visitMethod(Opcodes.ACC_PUBLIC, "equals", "(Ljava/lang/Object;)Z", null, null);
+            equals.visitCode();
+            equals.visitInsn(Opcodes.ICONST_0);
+            equals.visitInsn(Opcodes.IRETURN);
+            equals.visitMaxs(0, 0);
+            equals.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * The bytecode of the index-th interface of the corpus.
+     */
+    public byte[] generateInterface(int index) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT,
+                interfaceName(index), null, "java/lang/Object", null);
+        writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "handle" + index, "()V", null, null).visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Picks fanOut distinct classes other than the index-th one, without replacement, so the class really has
+     * that many dependencies. Backward edges (to lower indices) close cycles with the forward edges of the
+     * classes they point to; when one direction has no classes left, the other is used.
+     */
+    private int[] pickTargets(int index, Random random) {
+        if (classCount == 1) {
+            return new int[] {0};
+        }
+        int[] targets = new int[Math.max(1, Math.min(fanOut, classCount - 1))];
+        int backwardLeft = index;
+        int forwardLeft = classCount - index - 1;
+
+        for (int t = 0; t < targets.length; t++) {
+            boolean backward = forwardLeft == 0 || (backwardLeft > 0 && random.nextDouble() < cycleDensity);
+            int start = backward ? 0 : index + 1;
+            int size = backward ? index : classCount - index - 1;
+
+            // Probe onward from a random class of that direction until one not picked yet
+            int offset = random.nextInt(size);
+            while (contains(targets, t, start + offset)) {
+                offset = (offset + 1) % size;
+            }
+            targets[t] = start + offset;
+            if (backward) {
+                backwardLeft--;
+            } else {
+                forwardLeft--;
+            }
+        }
+        return targets;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String className(int index) {
+        return ROOT_PACKAGE + "p" + (index / CLASSES_PER_PACKAGE) + "/C" + index;
+    }
+
+    private String interfaceName(int index) {
+        return ROOT_PACKAGE + "api/Handler" + index;
+    }
+
+    private static String descriptor(String internalName) {
+        return "L" + internalName + ";";
+    }
+
+    private static void writeFile(Path folder, String internalName, byte[] bytecode) throws IOException {
+        Path file = folder.resolve(internalName + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytecode);
+    }
+
+    private static void writeEntry(JarOutputStream out, String internalName, byte[] bytecode) throws IOException {
+        out.putNextEntry(new JarEntry(internalName + ".class"));
+        out.write(bytecode);
+        out.closeEntry();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusGenerator <output folder or .jar> <classCount> [fields=N] [methods=N] [locals=N]"
+                    + " [fanOut=N] [inheritanceDepth=N] [interfaces=N] [cycleDensity=0..1] [seed=N]");
+            System.exit(1);
+        }
+
+        CorpusGenerator generator = new CorpusGenerator().classCount(Integer.parseInt(args[1]));
+        for (int i = 2; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (option.length != 2) {
+                System.err.println("Expected key=value: " + args[i]);
+                System.exit(1);
+            }
+            switch (option[0]) {
+                case "fields":
+                    generator.fieldsPerClass(Integer.parseInt(option[1]));
+                    break;
+                case "methods":
+                    generator.methodsPerClass(Integer.parseInt(option[1]));
+                    break;
+                case "locals":
+                    generator.localsPerMethod(Integer.parseInt(option[1]));
+                    break;
+                case "fanOut":
+                    generator.fanOut(Integer.parseInt(option[1]));
+                    break;
+                case "inheritanceDepth":
+                    generator.inheritanceDepth(Integer.parseInt(option[1]));
+                    break;
+                case "interfaces":
+                    generator.interfaceCount(Integer.parseInt(option[1]));
+                    break;
+                case "cycleDensity":
+                    generator.cycleDensity(Double.parseDouble(option[1]));
+                    break;
+                case "seed":
+                    generator.seed(Long.parseLong(option[1]));
+                    break;
+                default:
+                    System.err.println("Unknown option: " + option[0]);
+                    System.exit(1);
+            }
+        }
+
+        Path output = Paths.get(args[0]);
+        long start = System.nanoTime();
+        generator.write(output);
+        System.out.println("Wrote " + generator.classCount + " class(es) to " + output
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -1,15 +1,21 @@
 package datasource;
 
+import domain.PipelineProfile;
 import domain.internal_representation.*;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.HashMap;
@@ -17,129 +23,360 @@ import java.util.HashMap;
 /**
  * Adapter class that adapts the ASM library to the DataModelConverter interface.
  * Converts ASM's ClassNode structure into our domain ClassInfo structure.
+ *
+ * Classes are always converted in the order of their file paths, so the resulting
+ * Context is the same whether conversion runs sequentially or in parallel.
  */
 public class AsmConverter implements DataModelConverter {
 
+    // Below this many classes a fork/join task converts its range directly
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    // Classes converted at a time before they are copied into columns; enough to keep every pool thread busy
+    private static final int COLUMNAR_CHUNK_SIZE = 4096;
+
+    // One pool per parallelism for the whole process, so repeated builds (watch, batch, daemon) reuse its threads
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
     private final AsmLibrary adaptee;
+    private final int parallelism;
+    private final ClassCache cache;
+
+    // Shared by every class this converter produces, so their type ids can be compared directly
+    private final SymbolTable symbols = new SymbolTable();
+    private final DescriptorCache descriptors = new DescriptorCache(symbols);
+
+    static final String CONVERT_STAGE = "Convert bytecode";
+    static final String GRAPH_STAGE = "Build dependency graph";
+
+    private boolean columnarModel;
+    private PipelineProfile profile;
 
     public AsmConverter() {
+        this(1);
+    }
+
+    public AsmConverter(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Unchanged classes are taken from the cache instead of being parsed again; the cache may be null.
+     */
+    public AsmConverter(int parallelism, ClassCache cache) {
         this.adaptee = new AsmLibrary();
+        this.parallelism = Math.max(1, parallelism);
+        this.cache = cache;
+    }
+
+    /**
+     * When enabled, buildContext stores the classes in a ColumnarModel instead of keeping the object tree,
+     * which takes far less memory for large codebases. Checks see the same ClassInfo getters either way.
+     */
+    public void setColumnarModel(boolean columnarModel) {
+        this.columnarModel = columnarModel;
+    }
+
+    /**
+     * Records the time, CPU and allocations of conversion and graph building in buildContext. Pass null to stop.
+     */
+    public void setProfile(PipelineProfile profile) {
+        this.profile = profile;
     }
 
     @Override
     public Context buildContext(Map<String, byte[]> classFiles, String folderPath) {
+        return buildContext(classFiles, folderPath, AnalysisDepth.INSTRUCTIONS);
+    }
+
+    @Override
+    public Context buildContext(Map<String, byte[]> classFiles, String folderPath, AnalysisDepth depth) {
+        int parsingOptions = getParsingOptions(depth);
+        PipelineProfile.Measurement conversion = profile != null ? getConvertStage().begin() : null;
+
+        String[] paths = classFiles.keySet().toArray(new String[0]);
+        Arrays.sort(paths);
 
-        List<ClassInfo> classes = new ArrayList<>();
-        Map<String, byte[]> classBytecodeMap = new HashMap<>();
+        byte[][] bytecodes = new byte[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            bytecodes[i] = classFiles.get(paths[i]);
+        }
 
-        for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
-            ClassInfo classInfo = convertClass(entry.getValue());
-            classes.add(classInfo);
-            classBytecodeMap.put(classInfo.getName(), entry.getValue());
+        ClassInfo[] converted = new ClassInfo[paths.length];
+        List<ClassInfo> classes;
+        if (columnarModel) {
+            classes = convertToColumns(bytecodes, converted, parsingOptions);
+        } else {
+            convertRange(bytecodes, converted, parsingOptions, 0, bytecodes.length);
+            classes = new ArrayList<>(Arrays.asList(converted));
         }
 
+        // The bytes are not kept: the context reads a class back from its file if a check asks for it
+        BiFunction<String, byte[], BytecodeSource> sources = ClassFileSources.forRoot(folderPath);
+        Map<String, BytecodeSource> classBytecodeMap = new HashMap<>();
+        for (int i = 0; i < paths.length; i++) {
+            classBytecodeMap.put(symbols.getName(classes.get(i).getNameId()), sources.apply(paths[i], bytecodes[i]));
+        }
+
+        if (profile == null) {
+            return new Context(classes, convertDependencies(classes), folderPath, classBytecodeMap);
+        }
+
+        conversion.end();
+        long members = 0;
+        for (ClassInfo classInfo : classes) {
+            members += classInfo.getFields().size() + classInfo.getMethods().size();
+        }
+        getConvertStage().addCounts(classes.size(), members);
+
+        PipelineProfile.Stage graphStage = profile.getStage(GRAPH_STAGE, "classes", "edges");
+        PipelineProfile.Measurement graph = graphStage.begin();
         DependencyInfo dependencyInfo = convertDependencies(classes);
+        graph.end();
+        graphStage.addCounts(dependencyInfo.getSize(), dependencyInfo.getEdgeCount());
 
         return new Context(classes, dependencyInfo, folderPath, classBytecodeMap);
     }
 
+    private void convertRange(byte[][] bytecodes, ClassInfo[] converted, int parsingOptions, int from, int to) {
+        if (parallelism == 1 || to - from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                converted[i] = convertClass(bytecodes[i], parsingOptions);
+            }
+        } else {
+            getPool().invoke(new ConvertRangeTask(bytecodes, converted, parsingOptions, from, to));
+        }
+    }
+
+    /**
+     * Converts the classes a chunk at a time and copies every chunk into a ColumnarModel as soon as it is done,
+     * so at most one chunk of classes exists as an object tree. Cached results move over to the views.
+     */
+    private List<ClassInfo> convertToColumns(byte[][] bytecodes, ClassInfo[] converted, int parsingOptions) {
+        ColumnarModel model = new ColumnarModel(symbols, bytecodes.length);
+        for (int from = 0; from < bytecodes.length; from += COLUMNAR_CHUNK_SIZE) {
+            int to = Math.min(bytecodes.length, from + COLUMNAR_CHUNK_SIZE);
+            convertRange(bytecodes, converted, parsingOptions, from, to);
+            for (int i = from; i < to; i++) {
+                ClassInfo view = model.add(converted[i]);
+                if (cache != null) {
+                    cache.replaceClass(converted[i], view);
+                }
+                converted[i] = null;
+            }
+        }
+        model.trimToSize();
+        return model.getClasses();
+    }
+
     /**
      * Analyzes all classes and builds the dependency information.
      */
     public DependencyInfo convertDependencies(List<ClassInfo> classes) {
-        // Build index map for quick lookups
-        Map<String, Integer> classNameToIndex = new HashMap<>();
+        int[] classNameIds = new int[classes.size()];
         for (int i = 0; i < classes.size(); i++) {
-            classNameToIndex.put(classes.get(i).getName(), i);
+            classNameIds[i] = classes.get(i).getNameId();
         }
 
-        DependencyInfo dependencyInfo = new DependencyInfo(classNameToIndex, classes.size());
+        DependencyGraphEvent event = new DependencyGraphEvent();
+        event.begin();
+        DependencyInfo dependencyInfo = new DependencyInfo(symbols, classNameIds);
 
         for (ClassInfo classInfo : classes) {
-            String className = classInfo.getName();
-
-            // 1) GENERAL relationships (
-            for (MethodInfo method : classInfo.getMethods()) {
-                // Return type
-                String returnType = method.getReturnType();
-                if (returnType != null
-                        && !returnType.equals("void")
-                        && !className.equals(returnType)
-                        && dependencyInfo.getClassIndex(returnType) != -1) {
-
-                    DependencyType current = dependencyInfo.getDependency(className, returnType);
-                    if (current == DependencyType.NONE) {
-                        dependencyInfo.setDependency(className, returnType, DependencyType.GENERAL);
-                    }
-                }
+            addDependencies(classInfo, dependencyInfo);
+        }
+
+        if (event.shouldCommit()) {
+            event.classCount = dependencyInfo.getSize();
+            event.edgeCount = dependencyInfo.getEdgeCount();
+            event.commit();
+        }
 
-                // Local variables (includes parameters)
-                for (LocalVariableInfo localVar : method.getLocalVariables()) {
-                    String varType = localVar.getType();
-                    if (!className.equals(varType)
-                            && dependencyInfo.getClassIndex(varType) != -1) {
-
-                        DependencyType current = dependencyInfo.getDependency(className, varType);
-                        if (current == DependencyType.NONE) {
-                            dependencyInfo.setDependency(className, varType, DependencyType.GENERAL);
-                        }
-                    }
+        return dependencyInfo;
+    }
+
+    /**
+     * Adds the outgoing dependencies of one class to the graph.
+     * The edges depend only on the class itself and on which classes exist, so a changed
+     * class can be re-linked by clearing its outgoing edges and calling this again.
+     */
+    void addDependencies(ClassInfo classInfo, DependencyInfo dependencyInfo) {
+        SymbolTable symbols = dependencyInfo.getSymbolTable();
+        int classId = classInfo.getNameId();
+        int from = dependencyInfo.getClassIndexOfSymbol(classId);
+
+        // 1) GENERAL relationships (
+        for (MethodInfo method : classInfo.getMethods()) {
+            // Return type ("void" is never one of the classes)
+            int returnTypeId = method.getReturnTypeId();
+            int to = dependencyInfo.getClassIndexOfSymbol(returnTypeId);
+            if (returnTypeId != classId && to != -1
+                    && dependencyInfo.getDependency(from, to) == DependencyType.NONE) {
+                dependencyInfo.setDependency(from, to, DependencyType.GENERAL);
+            }
+
+            // Local variables (includes parameters)
+            for (LocalVariableInfo localVar : method.getLocalVariables()) {
+                int varTypeId = localVar.getTypeId();
+                to = dependencyInfo.getClassIndexOfSymbol(varTypeId);
+                if (varTypeId != classId && to != -1
+                        && dependencyInfo.getDependency(from, to) == DependencyType.NONE) {
+                    dependencyInfo.setDependency(from, to, DependencyType.GENERAL);
                 }
             }
+        }
 
-            // 2) HAS_A / HAS_MANY relationships (fields)
-            for (FieldInfo field : classInfo.getFields()) {
-                String fieldType = field.getType();
+        // 2) HAS_A / HAS_MANY relationships (fields)
+        for (FieldInfo field : classInfo.getFields()) {
+            int fieldTypeId = field.getTypeId();
 
-                //see if is an array
-                boolean isMany = fieldType.endsWith("[]");
-                String targetType = isMany
-                        ? fieldType.substring(0, fieldType.length() - 2)  // strip "[]"
-                        : fieldType;
+            //see if is an array; the symbol table knows the element type of "Foo[]"
+            int targetTypeId = symbols.getElementId(fieldTypeId);
+            boolean isMany = targetTypeId != fieldTypeId;
 
-                // ignore self-dependencies and unknown types
-                if (!className.equals(targetType)
-                        && dependencyInfo.getClassIndex(targetType) != -1) {
+            // ignore self-dependencies and unknown types
+            int to = dependencyInfo.getClassIndexOfSymbol(targetTypeId);
+            if (targetTypeId != classId && to != -1) {
+                DependencyType depType = isMany
+                        ? DependencyType.HAS_MANY
+                        : DependencyType.HAS_A;
 
-                    DependencyType depType = isMany
-                            ? DependencyType.HAS_MANY
-                            : DependencyType.HAS_A;
+                // overwrite GENERAL if it was there; later IMPLEMENTS / IS_A still overwrite this
+                dependencyInfo.setDependency(from, to, depType);
+            }
+        }
 
-                    // overwrite GENERAL if it was there; later IMPLEMENTS / IS_A still overwrite this
-                    dependencyInfo.setDependency(className, targetType, depType);
-                }
+        // 3) IMPLEMENTS relationships (interfaces)
+        for (int i = 0; i < classInfo.getInterfaceCount(); i++) {
+            int interfaceId = classInfo.getInterfaceId(i);
+            int to = dependencyInfo.getClassIndexOfSymbol(interfaceId);
+            if (interfaceId != classId && to != -1) {
+                dependencyInfo.setDependency(from, to, DependencyType.IMPLEMENTS);
             }
+        }
+
+        // 4) IS_A relationships (superclass)
+        int superClassId = classInfo.getSuperClassId();
+        int to = dependencyInfo.getClassIndexOfSymbol(superClassId);
+        if (superClassId != -1 && superClassId != classId && to != -1) {
+            dependencyInfo.setDependency(from, to, DependencyType.IS_A);
+        }
+    }
+
+    /**
+     * Fork/join task that converts a range of class files, splitting it in half until it is small enough.
+     * Each class is written to its own slot, so no synchronization is needed.
+     */
+    private class ConvertRangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[][] bytecodes;
+        private final ClassInfo[] converted;
+        private final int parsingOptions;
+        private final int from;
+        private final int to;
+
+        ConvertRangeTask(byte[][] bytecodes, ClassInfo[] converted, int parsingOptions, int from, int to) {
+            this.bytecodes = bytecodes;
+            this.converted = converted;
+            this.parsingOptions = parsingOptions;
+            this.from = from;
+            this.to = to;
+        }
 
-            // 3) IMPLEMENTS relationships (interfaces)
-            for (String interfaceName : classInfo.getInterfaces()) {
-                if (!className.equals(interfaceName)) {
-                    dependencyInfo.setDependency(className, interfaceName, DependencyType.IMPLEMENTS);
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                // Only leaves do work, so measuring them counts every pool thread exactly once
+                PipelineProfile.Measurement measurement = profile != null ? getConvertStage().beginWork() : null;
+                for (int i = from; i < to; i++) {
+                    converted[i] = convertClass(bytecodes[i], parsingOptions);
+                }
+                if (measurement != null) {
+                    measurement.end();
                 }
+                return;
             }
 
-            // 4) IS_A relationships (superclass)
-            String superClass = classInfo.getSuperClass();
-            if (superClass != null
-                    && !superClass.isEmpty()
-                    && !className.equals(superClass)) {
-                dependencyInfo.setDependency(className, superClass, DependencyType.IS_A);
-            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ConvertRangeTask(bytecodes, converted, parsingOptions, from, middle),
+                    new ConvertRangeTask(bytecodes, converted, parsingOptions, middle, to));
         }
+    }
 
-        return dependencyInfo;
+    // Fork/join workers are daemon threads, so the kept pools never hold up exit
+    private ForkJoinPool getPool() {
+        if (parallelism == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    private PipelineProfile.Stage getConvertStage() {
+        return profile.getStage(CONVERT_STAGE, "classes", "members");
     }
 
-    private String getSimpleName(String fullname) {
-        int lastDot = fullname.lastIndexOf('.');
-        return lastDot >= 0 ? fullname.substring(lastDot + 1):fullname;
+    /**
+     * Picks the cheapest ASM parsing mode that still provides what the depth needs.
+     * Method bodies are only read when local variables or instructions are needed,
+     * and stack map frames are only expanded for instruction-level analysis.
+     */
+    int getParsingOptions(AnalysisDepth depth) {
+        switch (depth) {
+            case HEADER:
+            case MEMBERS:
+                return ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+            case LOCAL_VARIABLES:
+                return ClassReader.SKIP_FRAMES;
+            case INSTRUCTIONS:
+            default:
+                return ClassReader.EXPAND_FRAMES;
+        }
+    }
+
+    /**
+     * The table the type ids of every class converted here refer to.
+     */
+    public SymbolTable getSymbolTable() {
+        return symbols;
     }
 
     public ClassInfo convertClass(byte[] bytes) {
-        ClassNode classNode = adaptee.readClassNode(bytes);
+        return convertClass(bytes, ClassReader.EXPAND_FRAMES);
+    }
+
+    ClassInfo convertClass(byte[] bytes, int parsingOptions) {
+        ClassConversionEvent event = new ClassConversionEvent();
+        event.begin();
+
+        ClassInfo classInfo = cache != null ? cache.loadClass(bytes, parsingOptions, symbols) : null;
+        boolean fromCache = classInfo != null;
+        if (classInfo == null) {
+            classInfo = parseClass(bytes, parsingOptions);
+            if (cache != null) {
+                cache.storeClass(bytes, parsingOptions, classInfo, symbols);
+            }
+        }
+
+        if (event.shouldCommit()) {
+            event.className = symbols.getName(classInfo.getNameId());
+            event.byteSize = bytes.length;
+            event.fromCache = fromCache;
+            event.commit();
+        }
+        return classInfo;
+    }
+
+    private ClassInfo parseClass(byte[] bytes, int parsingOptions) {
+        ClassNode classNode = adaptee.readClassNode(bytes, parsingOptions);
 
         // Extract basic class information
-        String name = getSimpleName(Type.getObjectType(classNode.name).getClassName());
-        String superClass = classNode.superName != null ? getSimpleName(Type.getObjectType(classNode.superName).getClassName()) : null;
+        int nameId = descriptors.getObjectTypeId(classNode.name);
+        String name = symbols.getSimpleName(nameId);
+        String qualifiedName = symbols.getName(nameId);
+        String packageName = qualifiedName.equals(name) ? "" : qualifiedName.substring(0, qualifiedName.length() - name.length() - 1);
+        int superClassId = classNode.superName != null ? descriptors.getObjectTypeId(classNode.superName) : -1;
+        String superClass = superClassId != -1 ? symbols.getSimpleName(superClassId) : null;
         boolean isPublic = (classNode.access & Opcodes.ACC_PUBLIC) != 0;
         boolean isInterface = (classNode.access & Opcodes.ACC_INTERFACE) != 0;
         boolean isAbstract = (classNode.access & Opcodes.ACC_ABSTRACT) != 0;
@@ -147,7 +384,13 @@ public class AsmConverter implements DataModelConverter {
 
 
         // Convert interfaces
-        List<String> interfaces = ((List<String>) classNode.interfaces).stream().map(iface -> getSimpleName(Type.getObjectType(iface).getClassName())).collect(Collectors.toList());
+        List<String> interfaceNodes = classNode.interfaces;
+        int[] interfaceIds = new int[interfaceNodes.size()];
+        List<String> interfaces = new ArrayList<>(interfaceNodes.size());
+        for (int i = 0; i < interfaceIds.length; i++) {
+            interfaceIds[i] = descriptors.getObjectTypeId(interfaceNodes.get(i));
+            interfaces.add(symbols.getSimpleName(interfaceIds[i]));
+        }
 
         // Convert fields
         List<FieldInfo> fields = adaptee.getFields(classNode).stream().map(fieldNode -> convertField(fieldNode, name)).collect(Collectors.toList());
@@ -155,7 +398,7 @@ public class AsmConverter implements DataModelConverter {
         // Convert methods
         List<MethodInfo> methods = adaptee.getMethods(classNode).stream().map(methodNode -> convertMethod(methodNode, name)).collect(Collectors.toList());
 
-        return new ClassInfo(name, fields, methods, interfaces, superClass, isPublic, isInterface, isAbstract, isEnum);
+        return new ClassInfo(name, nameId, packageName, fields, methods, interfaces, interfaceIds, superClass, superClassId, isPublic, isInterface, isAbstract, isEnum);
     }
 
     /**
@@ -163,11 +406,11 @@ public class AsmConverter implements DataModelConverter {
      */
     private FieldInfo convertField(FieldNode fieldNode, String className) {
         String fieldName = fieldNode.name;
-        String type = getSimpleName(Type.getType(fieldNode.desc).getClassName());
-        boolean isPublic = (fieldNode.access & Opcodes.ACC_PUBLIC) != 0;
+        int typeId = descriptors.getTypeId(fieldNode.desc);
+        boolean isStatic = (fieldNode.access & Opcodes.ACC_STATIC) != 0;
         boolean isFinal = (fieldNode.access & Opcodes.ACC_FINAL) != 0;
 
-        return new FieldInfo(fieldName, className, type, isPublic, isFinal);
+        return new FieldInfo(fieldName, className, symbols.getSimpleName(typeId), typeId, getVisibility(fieldNode.access), isStatic, isFinal);
     }
 
     /**
@@ -175,21 +418,41 @@ public class AsmConverter implements DataModelConverter {
      */
     private MethodInfo convertMethod(MethodNode methodNode, String className) {
         String methodName = methodNode.name;
-        String returnType = getSimpleName(Type.getReturnType(methodNode.desc).getClassName());
-        boolean isPublic = (methodNode.access & Opcodes.ACC_PUBLIC) != 0;
+        int[] typeIds = descriptors.getMethodTypeIds(methodNode.desc);
         boolean isStatic = (methodNode.access & Opcodes.ACC_STATIC) != 0;
+        boolean isAbstract = (methodNode.access & Opcodes.ACC_ABSTRACT) != 0;
+
+        int[] parameterTypeIds = Arrays.copyOfRange(typeIds, 1, typeIds.length);
+        List<String> parameterTypes = new ArrayList<>(parameterTypeIds.length);
+        for (int parameterTypeId : parameterTypeIds) {
+            parameterTypes.add(symbols.getSimpleName(parameterTypeId));
+        }
 
         List<LocalVariableInfo> localVariables = new ArrayList<>();
         if (methodNode.localVariables != null) {
             for (LocalVariableNode localVar : methodNode.localVariables) {
                 // Skip 'this' parameter for non-static methods
                 if (!localVar.name.equals("this")) {
-                    String varType = getSimpleName(Type.getType(localVar.desc).getClassName());
-                    localVariables.add(new LocalVariableInfo(localVar.name, varType));
+                    int varTypeId = descriptors.getTypeId(localVar.desc);
+                    localVariables.add(new LocalVariableInfo(localVar.name, symbols.getSimpleName(varTypeId), varTypeId));
                 }
             }
         }
 
-        return new MethodInfo(methodName, className, returnType, isPublic, isStatic, localVariables);
+        return new MethodInfo(methodName, className, symbols.getSimpleName(typeIds[0]), typeIds[0], parameterTypes, parameterTypeIds,
+                getVisibility(methodNode.access), isStatic, isAbstract, localVariables);
+    }
+
+    private Visibility getVisibility(int access) {
+        if ((access & Opcodes.ACC_PUBLIC) != 0) {
+            return Visibility.PUBLIC;
+        }
+        if ((access & Opcodes.ACC_PROTECTED) != 0) {
+            return Visibility.PROTECTED;
+        }
+        if ((access & Opcodes.ACC_PRIVATE) != 0) {
+            return Visibility.PRIVATE;
+        }
+        return Visibility.PACKAGE;
     }
 }
\ No newline at end of file
@@ -15,12 +15,13 @@ class AsmLibrary {
 
     /**
      * Reads class bytes and returns an ASM ClassNode representing the class.
+     * The parsing options (ClassReader.SKIP_CODE, SKIP_DEBUG, ...) decide how much of the class is read.
      */
-    ClassNode readClassNode(byte[] bytes) {
+    ClassNode readClassNode(byte[] bytes, int parsingOptions) {
 
         ClassReader reader = new ClassReader(bytes);
         ClassNode classNode = new ClassNode();
-        reader.accept(classNode, ClassReader.EXPAND_FRAMES);
+        reader.accept(classNode, parsingOptions);
 
         return classNode;
     }
@@ -0,0 +1,303 @@
+package datasource;
+
+import domain.PerClassLintCheck;
+import domain.PerClassResultCache;
+import domain.Violation;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.SymbolTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent, content-addressed cache of converted classes and their per-class check results.
+ *
+ * Every entry is keyed by the SHA-256 of the class bytes, the ASM parsing options and the
+ * cache format version, so a class is only reused when its bytecode is unchanged.
+ * Per-class violations are stored inside the entry, keyed by the check's class name and a hash of
+ * the check's own bytecode, so results are recomputed as soon as a check's code changes.
+ * Entries are written by flush(), which also evicts the least recently used files
+ * once the cache grows beyond its size limit.
+ *
+ * Entries in memory are held only as long as their ClassInfo is reachable, so a daemon or
+ * watch session does not keep the classes of every context it has ever built.
+ */
+public class ClassCache implements PerClassResultCache {
+
+    // Bump when the layout of the stored per-class results changes
+    private static final int RESULTS_FORMAT = 2;
+
+    // Result keys of the checks seen so far; hashing a check's bytecode once per run is enough
+    private static final Map<Class<?>, String> CHECK_KEYS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ClassInfoCodec codec = new ClassInfoCodec();
+
+    // Entries for the classes of live contexts, by ClassInfo identity; ClassInfo keeps Object's equals
+    private final Map<ClassInfo, Entry> entries = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ClassCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Returns the cached conversion of these class bytes, or null if the class has not been seen before.
+     * Type names are interned into the given table.
+     */
+    ClassInfo loadClass(byte[] bytecode, int parsingOptions, SymbolTable symbols) {
+        String key = computeKey(bytecode, parsingOptions);
+        Path file = getEntryFile(key);
+
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                ClassInfo classInfo = codec.readClass(CodecInput.of(in), symbols);
+                Map<String, List<Violation>> results = new ConcurrentHashMap<>();
+                int resultCount = in.readInt();
+                for (int i = 0; i < resultCount; i++) {
+                    String checkKey = in.readUTF();
+                    int violationCount = in.readInt();
+                    List<Violation> violations = new ArrayList<>(violationCount);
+                    for (int v = 0; v < violationCount; v++) {
+                        String checkName = in.readUTF();
+                        String className = in.readUTF();
+                        String message = in.readUTF();
+                        String qualifiedName = in.readUTF();
+                        violations.add(new Violation(checkName, className, message, qualifiedName.isEmpty() ? null : qualifiedName));
+                    }
+                    results.put(checkKey, violations);
+                }
+
+                entries.put(classInfo, new Entry(key, symbols, results, false));
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                hits.incrementAndGet();
+                return classInfo;
+            } catch (IOException | RuntimeException e) {
+                // A damaged entry is simply treated as a miss and rewritten
+                deleteQuietly(file);
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Records a freshly converted class, whose type ids refer to symbols; it is written to disk on the next flush.
+     */
+    void storeClass(byte[] bytecode, int parsingOptions, ClassInfo classInfo, SymbolTable symbols) {
+        entries.put(classInfo, new Entry(computeKey(bytecode, parsingOptions), symbols, new ConcurrentHashMap<>(), true));
+    }
+
+    /**
+     * Moves the entry of a class to another object representing the same class, such as a columnar view.
+     */
+    void replaceClass(ClassInfo original, ClassInfo replacement) {
+        Entry entry = entries.remove(original);
+        if (entry != null) {
+            entries.put(replacement, entry);
+        }
+    }
+
+    @Override
+    public List<Violation> getViolations(ClassInfo classInfo, PerClassLintCheck check) {
+        Entry entry = entries.get(classInfo);
+        return entry != null ? entry.results.get(getCheckKey(check)) : null;
+    }
+
+    @Override
+    public void putViolations(ClassInfo classInfo, PerClassLintCheck check, List<Violation> violations) {
+        Entry entry = entries.get(classInfo);
+        if (entry != null) {
+            String checkKey = getCheckKey(check);
+            // Results of older versions of this check can never be read again
+            String checkName = checkKey.substring(0, checkKey.indexOf('@') + 1);
+            entry.results.keySet().removeIf(key -> !checkName.isEmpty() && key.startsWith(checkName));
+            entry.results.put(checkKey, new ArrayList<>(violations));
+            entry.dirty = true;
+        }
+    }
+
+    /**
+     * Writes new or updated entries to disk and evicts old ones above the size limit.
+     */
+    public void flush() throws IOException {
+        List<Map.Entry<ClassInfo, Entry>> dirty = new ArrayList<>();
+        synchronized (entries) {
+            for (Map.Entry<ClassInfo, Entry> mapEntry : entries.entrySet()) {
+                if (mapEntry.getValue().dirty) {
+                    dirty.add(new AbstractMap.SimpleImmutableEntry<>(mapEntry.getKey(), mapEntry.getValue()));
+                }
+            }
+        }
+        for (Map.Entry<ClassInfo, Entry> mapEntry : dirty) {
+            mapEntry.getValue().dirty = false;
+            writeEntry(mapEntry.getKey(), mapEntry.getValue());
+        }
+        evict();
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private void writeEntry(ClassInfo classInfo, Entry entry) throws IOException {
+        Path file = getEntryFile(entry.key);
+        Files.createDirectories(file.getParent());
+
+        // Write to a temp file first so a concurrent reader never sees a half-written entry
+        Path temp = Files.createTempFile(file.getParent(), entry.key, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            codec.writeClass(out, classInfo, entry.symbols);
+            out.writeInt(entry.results.size());
+            for (Map.Entry<String, List<Violation>> result : entry.results.entrySet()) {
+                out.writeUTF(result.getKey());
+                out.writeInt(result.getValue().size());
+                for (Violation violation : result.getValue()) {
+                    out.writeUTF(violation.getCheckName());
+                    out.writeUTF(violation.getClassName());
+                    out.writeUTF(violation.getMessage());
+                    out.writeUTF(violation.getQualifiedName() != null ? violation.getQualifiedName() : "");
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits in maxBytes.
+     * Reads refresh an entry's modification time, so it doubles as the last access time.
+     */
+    private void evict() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        long totalBytes = 0;
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        for (Path file : files) {
+            totalBytes += Files.size(file);
+            lastUsed.put(file, Files.getLastModifiedTime(file));
+        }
+
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+
+        files.sort(Comparator.comparing(lastUsed::get));
+        for (Path file : files) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            long size = Files.size(file);
+            deleteQuietly(file);
+            totalBytes -= size;
+        }
+    }
+
+    private String computeKey(byte[] bytecode, int parsingOptions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder key = new StringBuilder(toHex(digest.digest(bytecode), 32));
+            return key.append('-').append(parsingOptions).append("-v").append(ClassInfoCodec.VERSION).append('.').append(RESULTS_FORMAT).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes, int length) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    // Spread entries over 256 subdirectories so no single directory gets huge
+    private Path getEntryFile(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".bin");
+    }
+
+    private String getCheckKey(PerClassLintCheck check) {
+        return CHECK_KEYS.computeIfAbsent(check.getClass(), ClassCache::computeCheckKey);
+    }
+
+    /**
+     * The check's class name plus a hash of its bytecode and that of its superclasses outside the JDK,
+     * which covers the traversal in PerClassLintCheck. Without readable bytecode only the name is used.
+     */
+    static String computeCheckKey(Class<?> checkClass) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Class<?> type = checkClass; type != null && !type.getName().startsWith("java."); type = type.getSuperclass()) {
+                String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+                try (InputStream in = type.getResourceAsStream(resource)) {
+                    if (in == null) {
+                        return checkClass.getName();
+                    }
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return checkClass.getName() + '@' + toHex(digest.digest(), 8);
+        } catch (IOException e) {
+            return checkClass.getName();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Nothing to do; the entry will be overwritten or evicted later
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        // The table the class's type ids refer to; converters of different runs have their own
+        private final SymbolTable symbols;
+        private final Map<String, List<Violation>> results;
+        private volatile boolean dirty;
+
+        Entry(String key, SymbolTable symbols, Map<String, List<Violation>> results, boolean dirty) {
+            this.key = key;
+            this.symbols = symbols;
+            this.results = results;
+            this.dirty = dirty;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for turning the bytecode of one class into a ClassInfo.
+ */
+@Name("linter.ClassConversion")
+@Label("Class Conversion")
+@Category({"Linter", "Conversion"})
+// Emitted once per class from the same few call sites, so a stack trace would only add cost
+@StackTrace(false)
+@Description("Converting the bytecode of one class into the internal representation")
+class ClassConversionEvent extends jdk.jfr.Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Bytecode Size")
+    @DataAmount
+    long byteSize;
+
+    @Label("From Cache")
+    @Description("The class was taken from the class cache instead of being parsed")
+    boolean fromCache;
+}
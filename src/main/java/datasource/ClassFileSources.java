@@ -0,0 +1,235 @@
+package datasource;
+
+import domain.internal_representation.BytecodeSource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * BytecodeSources that read a class back from where DataLoader found it, so a Context does not have to
+ * keep the loaded bytes. Understands DataLoader's keys: plain file paths for a folder, "archive!/entry"
+ * and "archive!/lib.jar!/entry" for an archive.
+ *
+ * Each source remembers the length and CRC-32 of the bytes that were converted, and refuses to return
+ * anything else, so a class file replaced after loading is reported instead of silently analyzed.
+ */
+final class ClassFileSources {
+
+    private static final String ARCHIVE_SEPARATOR = "!/";
+
+    private ClassFileSources() {
+    }
+
+    /**
+     * Maps the keys DataLoader returned for folderPath, with the bytes loaded for them, to sources that
+     * read the same class files again. Entries of one nested archive share a single reader.
+     */
+    static BiFunction<String, byte[], BytecodeSource> forRoot(String folderPath) {
+        if (Files.isDirectory(Paths.get(folderPath))) {
+            return FileSource::new;
+        }
+        Path archive = Paths.get(folderPath);
+        String prefix = folderPath + ARCHIVE_SEPARATOR;
+        Map<String, NestedArchive> nestedArchives = new ConcurrentHashMap<>();
+        return (key, bytes) -> {
+            if (!key.startsWith(prefix)) {
+                return new FileSource(key, bytes);
+            }
+            String entry = key.substring(prefix.length());
+            int nested = entry.indexOf(ARCHIVE_SEPARATOR);
+            if (nested < 0) {
+                return new ArchiveEntrySource(archive, entry, bytes);
+            }
+            NestedArchive nestedArchive = nestedArchives.computeIfAbsent(entry.substring(0, nested),
+                    name -> new NestedArchive(archive, name));
+            return new NestedEntrySource(nestedArchive, entry.substring(nested + ARCHIVE_SEPARATOR.length()), bytes);
+        };
+    }
+
+    /**
+     * A source over a region of a (memory-mapped) buffer; the bytes are only copied onto the heap when read.
+     */
+    static BytecodeSource ofBuffer(ByteBuffer region) {
+        ByteBuffer slice = region.slice().asReadOnlyBuffer();
+        return () -> {
+            byte[] bytes = new byte[slice.remaining()];
+            slice.duplicate().get(bytes);
+            return bytes;
+        };
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A source that checks what it reads against the bytes that were loaded.
+     */
+    private abstract static class VerifiedSource implements BytecodeSource {
+        private final int length;
+        private final int checksum;
+
+        VerifiedSource(byte[] loaded) {
+            this.length = loaded.length;
+            this.checksum = checksum(loaded);
+        }
+
+        @Override
+        public byte[] read() {
+            try {
+                byte[] bytes = readAgain();
+                if (bytes.length != length || checksum(bytes) != checksum) {
+                    throw new IOException(describe() + " changed since it was loaded");
+                }
+                return bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract byte[] readAgain() throws IOException;
+
+        abstract String describe();
+    }
+
+    private static class FileSource extends VerifiedSource {
+        // Kept as the key string rather than a Path: it is already in memory and Paths are comparatively heavy
+        private final String path;
+
+        FileSource(String path, byte[] loaded) {
+            super(loaded);
+            this.path = path;
+        }
+
+        @Override
+        byte[] readAgain() throws IOException {
+            return Files.readAllBytes(Paths.get(path));
+        }
+
+        @Override
+        String describe() {
+            return path;
+        }
+    }
+
+    private static class ArchiveEntrySource extends VerifiedSource {
+        private final Path archive;
+        private final String entry;
+
+        ArchiveEntrySource(Path archive, String entry, byte[] loaded) {
+            super(loaded);
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        @Override
+        byte[] readAgain() throws IOException {
+            try (ZipFile zip = new ZipFile(archive.toFile())) {
+                ZipEntry zipEntry = zip.getEntry(entry);
+                if (zipEntry == null) {
+                    throw new NoSuchFileException(describe());
+                }
+                try (InputStream in = zip.getInputStream(zipEntry)) {
+                    return in.readAllBytes();
+                }
+            }
+        }
+
+        @Override
+        String describe() {
+            return archive + ARCHIVE_SEPARATOR + entry;
+        }
+    }
+
+    private static class NestedEntrySource extends VerifiedSource {
+        private final NestedArchive archive;
+        private final String entry;
+
+        NestedEntrySource(NestedArchive archive, String entry, byte[] loaded) {
+            super(loaded);
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        @Override
+        byte[] readAgain() throws IOException {
+            return archive.read(entry);
+        }
+
+        @Override
+        String describe() {
+            return archive.describe() + ARCHIVE_SEPARATOR + entry;
+        }
+    }
+
+    /**
+     * An archive stored in an entry of the root archive. A nested archive can only be read from the start,
+     * so the first read unpacks all of its class files at once and keeps them for the entries read after it.
+     * They are held softly: the garbage collector may drop them, and the next read unpacks the archive again.
+     */
+    private static class NestedArchive {
+        private final Path archive;
+        private final String entry;
+        private SoftReference<Map<String, byte[]>> classFiles = new SoftReference<>(null);
+
+        NestedArchive(Path archive, String entry) {
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        synchronized byte[] read(String nestedEntry) throws IOException {
+            Map<String, byte[]> files = classFiles.get();
+            if (files == null) {
+                files = unpack();
+                classFiles = new SoftReference<>(files);
+            }
+            byte[] bytes = files.get(nestedEntry);
+            if (bytes == null) {
+                throw new NoSuchFileException(describe() + ARCHIVE_SEPARATOR + nestedEntry);
+            }
+            // Callers own what they read, so the kept copy is never handed out
+            return bytes.clone();
+        }
+
+        private Map<String, byte[]> unpack() throws IOException {
+            try (ZipFile zip = new ZipFile(archive.toFile())) {
+                ZipEntry zipEntry = zip.getEntry(entry);
+                if (zipEntry == null) {
+                    throw new NoSuchFileException(describe());
+                }
+                Map<String, byte[]> files = new HashMap<>();
+                try (ZipInputStream nested = new ZipInputStream(new BufferedInputStream(zip.getInputStream(zipEntry)))) {
+                    ZipEntry current;
+                    while ((current = nested.getNextEntry()) != null) {
+                        if (!current.isDirectory() && current.getName().endsWith(".class")) {
+                            files.put(current.getName(), nested.readAllBytes());
+                        }
+                    }
+                }
+                return files;
+            }
+        }
+
+        String describe() {
+            return archive + ARCHIVE_SEPARATOR + entry;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package datasource;
+
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.FieldInfo;
+import domain.internal_representation.LocalVariableInfo;
+import domain.internal_representation.MethodInfo;
+import domain.internal_representation.SymbolTable;
+import domain.internal_representation.Visibility;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of ClassInfo and everything it contains, used by the on-disk caches.
+ * Type names are stored as fully qualified text, taken from the writer's SymbolTable, and interned
+ * into the reader's SymbolTable when read back.
+ * Bump VERSION whenever the layout or the model changes.
+ */
+class ClassInfoCodec {
+
+    static final int VERSION = 2;
+
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+
+    /**
+     * Writes the class; symbols must be the table its type ids refer to.
+     */
+    void writeClass(DataOutput out, ClassInfo classInfo, SymbolTable symbols) throws IOException {
+        writeName(out, symbols.getName(classInfo.getNameId()));
+        writeName(out, classInfo.getPackageName());
+        writeNullable(out, classInfo.getSuperClassId() != -1 ? symbols.getName(classInfo.getSuperClassId()) : null);
+        out.writeBoolean(classInfo.isPublic());
+        out.writeBoolean(classInfo.isInterface());
+        out.writeBoolean(classInfo.isAbstract());
+        out.writeBoolean(classInfo.isEnum());
+        out.writeInt(classInfo.getInterfaceCount());
+        for (int i = 0; i < classInfo.getInterfaceCount(); i++) {
+            writeName(out, symbols.getName(classInfo.getInterfaceId(i)));
+        }
+
+        out.writeInt(classInfo.getFields().size());
+        for (FieldInfo field : classInfo.getFields()) {
+            writeName(out, field.getName());
+            writeName(out, symbols.getName(field.getTypeId()));
+            out.writeByte(field.getVisibility().ordinal());
+            out.writeBoolean(field.isStatic());
+            out.writeBoolean(field.isFinal());
+        }
+
+        out.writeInt(classInfo.getMethods().size());
+        for (MethodInfo method : classInfo.getMethods()) {
+            writeName(out, method.getName());
+            writeName(out, symbols.getName(method.getReturnTypeId()));
+            out.writeInt(method.getParameterCount());
+            for (int i = 0; i < method.getParameterCount(); i++) {
+                writeName(out, symbols.getName(method.getParameterTypeId(i)));
+            }
+            out.writeByte(method.getVisibility().ordinal());
+            out.writeBoolean(method.isStatic());
+            out.writeBoolean(method.isAbstract());
+            out.writeInt(method.getLocalVariables().size());
+            for (LocalVariableInfo variable : method.getLocalVariables()) {
+                writeName(out, variable.getName());
+                writeName(out, symbols.getName(variable.getTypeId()));
+            }
+        }
+    }
+
+    ClassInfo readClass(CodecInput in, SymbolTable symbols) throws IOException {
+        int nameId = symbols.intern(readName(in));
+        String name = symbols.getSimpleName(nameId);
+        String packageName = readName(in);
+        String superClassName = readNullable(in);
+        int superClassId = superClassName != null ? symbols.intern(superClassName) : -1;
+        String superClass = superClassId != -1 ? symbols.getSimpleName(superClassId) : null;
+        boolean isPublic = in.readBoolean();
+        boolean isInterface = in.readBoolean();
+        boolean isAbstract = in.readBoolean();
+        boolean isEnum = in.readBoolean();
+        int[] interfaceIds = readTypes(in, symbols);
+
+        int fieldCount = in.readInt();
+        List<FieldInfo> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            String fieldName = readName(in);
+            int typeId = symbols.intern(readName(in));
+            Visibility visibility = VISIBILITIES[in.readByte()];
+            boolean isStatic = in.readBoolean();
+            boolean isFinal = in.readBoolean();
+            fields.add(new FieldInfo(fieldName, name, symbols.getSimpleName(typeId), typeId, visibility, isStatic, isFinal));
+        }
+
+        int methodCount = in.readInt();
+        List<MethodInfo> methods = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String methodName = readName(in);
+            int returnTypeId = symbols.intern(readName(in));
+            int[] parameterTypeIds = readTypes(in, symbols);
+            Visibility visibility = VISIBILITIES[in.readByte()];
+            boolean isStatic = in.readBoolean();
+            boolean isMethodAbstract = in.readBoolean();
+
+            int variableCount = in.readInt();
+            List<LocalVariableInfo> localVariables = new ArrayList<>(variableCount);
+            for (int v = 0; v < variableCount; v++) {
+                String variableName = readName(in);
+                int typeId = symbols.intern(readName(in));
+                localVariables.add(new LocalVariableInfo(variableName, symbols.getSimpleName(typeId), typeId));
+            }
+            methods.add(new MethodInfo(methodName, name, symbols.getSimpleName(returnTypeId), returnTypeId,
+                    simpleNames(parameterTypeIds, symbols), parameterTypeIds, visibility, isStatic, isMethodAbstract, localVariables));
+        }
+
+        return new ClassInfo(name, nameId, packageName, fields, methods, simpleNames(interfaceIds, symbols), interfaceIds,
+                superClass, superClassId, isPublic, isInterface, isAbstract, isEnum);
+    }
+
+    /**
+     * Reads a counted list of type names and interns them.
+     */
+    private int[] readTypes(CodecInput in, SymbolTable symbols) throws IOException {
+        int[] ids = new int[in.readInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = symbols.intern(readName(in));
+        }
+        return ids;
+    }
+
+    private List<String> simpleNames(int[] ids, SymbolTable symbols) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(symbols.getSimpleName(id));
+        }
+        return names;
+    }
+
+    void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeName(out, value);
+        }
+    }
+
+    String readNullable(CodecInput in) throws IOException {
+        return in.readBoolean() ? readName(in) : null;
+    }
+
+    /**
+     * Writes one name or type string. Subclasses can encode repeated strings more compactly.
+     */
+    void writeName(DataOutput out, String value) throws IOException {
+        out.writeUTF(value);
+    }
+
+    String readName(CodecInput in) throws IOException {
+        return in.readUTF();
+    }
+}
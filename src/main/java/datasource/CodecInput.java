@@ -0,0 +1,46 @@
+package datasource;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * The few reads ClassInfoCodec needs, so a class can be decoded from a stream as well as straight
+ * from a (memory-mapped) buffer. Values are encoded as DataOutput writes them.
+ */
+interface CodecInput {
+
+    boolean readBoolean() throws IOException;
+
+    byte readByte() throws IOException;
+
+    int readInt() throws IOException;
+
+    String readUTF() throws IOException;
+
+    /**
+     * Reads through the given DataInput, e.g. a DataInputStream over a cache file.
+     */
+    static CodecInput of(DataInput in) {
+        return new CodecInput() {
+            @Override
+            public boolean readBoolean() throws IOException {
+                return in.readBoolean();
+            }
+
+            @Override
+            public byte readByte() throws IOException {
+                return in.readByte();
+            }
+
+            @Override
+            public int readInt() throws IOException {
+                return in.readInt();
+            }
+
+            @Override
+            public String readUTF() throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+}
@@ -0,0 +1,286 @@
+package datasource;
+
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.BytecodeSource;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.ColumnarModel;
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.DependencyType;
+import domain.internal_representation.SymbolTable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a fully built Context to a binary snapshot file and loads it back, so a later run can lint
+ * the same classes without reading or parsing the class files again.
+ *
+ * Layout: a header (magic, snapshot and codec versions, analysis depth, folder path), every class in
+ * ClassInfoCodec form, the outgoing edges of every class in order, and optionally the bytecode.
+ * Each distinct name is stored once and referred to by number afterwards.
+ * Loading maps the file into memory and decodes it straight from the mapping.
+ */
+public class ContextSnapshot {
+
+    private static final int MAGIC = 0x4C4E5453; // "LNTS"
+
+    // Bump when the layout changes; older snapshots are then rejected instead of misread
+    private static final int VERSION = 1;
+
+    private static final DependencyType[] TYPES = DependencyType.values();
+    private static final AnalysisDepth[] DEPTHS = AnalysisDepth.values();
+
+    private ContextSnapshot() {
+    }
+
+    /**
+     * Writes the context, built at the given depth, to the file. The file is replaced atomically,
+     * so a run reading it at the same time sees either the old or the new snapshot.
+     */
+    public static void write(Path file, Context context, AnalysisDepth depth, boolean includeBytecode) throws IOException {
+        ClassInfoCodec codec = new SharedNameCodec();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ClassInfoCodec.VERSION);
+            out.writeByte(depth.ordinal());
+            out.writeUTF(context.getFolderPath());
+
+            List<ClassInfo> classes = context.getClasses();
+            out.writeInt(classes.size());
+            for (ClassInfo classInfo : classes) {
+                codec.writeClass(out, classInfo, context.getSymbolTable());
+            }
+
+            DependencyInfo dependencyInfo = context.getDependencyInfo();
+            for (int i = 0; i < dependencyInfo.getSize(); i++) {
+                out.writeInt(dependencyInfo.getSuccessorCount(i));
+                for (int k = 0; k < dependencyInfo.getSuccessorCount(i); k++) {
+                    out.writeInt(dependencyInfo.getSuccessor(i, k));
+                    out.writeByte(dependencyInfo.getSuccessorType(i, k).ordinal());
+                }
+            }
+
+            Map<String, BytecodeSource> bytecode = includeBytecode ? context.getBytecodeSources() : new HashMap<>();
+            out.writeInt(bytecode.size());
+            for (Map.Entry<String, BytecodeSource> entry : bytecode.entrySet()) {
+                byte[] bytes = entry.getValue().read();
+                out.writeUTF(entry.getKey());
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot. Fails if the file is not a snapshot of this version, or if it was built at a
+     * shallower depth than requiredDepth, since the details the checks need would then be missing.
+     */
+    public static Context read(Path file, AnalysisDepth requiredDepth) throws IOException {
+        return read(file, requiredDepth, false);
+    }
+
+    /**
+     * Loads a snapshot like read(file, requiredDepth). With columnar set, every class is copied into a
+     * ColumnarModel as soon as it is decoded, so the classes never all exist as an object tree.
+     */
+    public static Context read(Path file, AnalysisDepth requiredDepth, boolean columnar) throws IOException {
+        ClassInfoCodec codec = new SharedNameCodec();
+        SymbolTable symbols = new SymbolTable();
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        CodecInput in = new BufferInput(buffer);
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a context snapshot: " + file);
+            }
+            int version = in.readInt();
+            int codecVersion = in.readInt();
+            if (version != VERSION || codecVersion != ClassInfoCodec.VERSION) {
+                throw new IOException("Snapshot " + file + " was written by a different version of the linter; create it again");
+            }
+            AnalysisDepth depth = DEPTHS[in.readByte()];
+            if (depth.max(requiredDepth) != depth) {
+                throw new IOException("Snapshot " + file + " only holds " + depth + " details, but the selected checks need "
+                        + requiredDepth + "; create it again with these checks");
+            }
+            String folderPath = in.readUTF();
+
+            int classCount = in.readInt();
+            List<ClassInfo> classes = new ArrayList<>(classCount);
+            ColumnarModel model = columnar ? new ColumnarModel(symbols, classCount) : null;
+            int[] classNameIds = new int[classCount];
+            for (int i = 0; i < classCount; i++) {
+                ClassInfo classInfo = codec.readClass(in, symbols);
+                classes.add(model != null ? model.add(classInfo) : classInfo);
+                classNameIds[i] = classInfo.getNameId();
+            }
+            if (model != null) {
+                model.trimToSize();
+            }
+
+            // Replaying the edges in their stored order recreates the graph exactly, including its ordering
+            DependencyInfo dependencyInfo = new DependencyInfo(symbols, classNameIds);
+            for (int i = 0; i < classCount; i++) {
+                int edgeCount = in.readInt();
+                for (int k = 0; k < edgeCount; k++) {
+                    int target = in.readInt();
+                    dependencyInfo.setDependency(i, target, TYPES[in.readByte()]);
+                }
+            }
+
+            // Bytecode stays in the mapping; it is only copied onto the heap if a check reads it
+            int bytecodeCount = in.readInt();
+            Map<String, BytecodeSource> bytecode = new HashMap<>();
+            for (int i = 0; i < bytecodeCount; i++) {
+                String className = in.readUTF();
+                int length = in.readInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new EOFException();
+                }
+                bytecode.put(className, ClassFileSources.ofBuffer(buffer.duplicate().limit(buffer.position() + length)));
+                buffer.position(buffer.position() + length);
+            }
+
+            return new Context(classes, dependencyInfo, folderPath, bytecode);
+        } catch (EOFException e) {
+            throw new IOException("Truncated context snapshot: " + file, e);
+        } catch (UTFDataFormatException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Damaged context snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Writes each distinct string in full the first time and as its number after that,
+     * so the thousands of repeats of common type names are neither stored nor decoded again.
+     */
+    private static class SharedNameCodec extends ClassInfoCodec {
+        private final Map<String, Integer> writtenIds = new HashMap<>();
+        private final List<String> readNames = new ArrayList<>();
+
+        @Override
+        void writeName(DataOutput out, String value) throws IOException {
+            Integer id = writtenIds.get(value);
+            if (id != null) {
+                out.writeInt(id);
+                return;
+            }
+            writtenIds.put(value, writtenIds.size());
+            out.writeInt(-1);
+            out.writeUTF(value);
+        }
+
+        @Override
+        String readName(CodecInput in) throws IOException {
+            int id = in.readInt();
+            if (id != -1) {
+                return readNames.get(id);
+            }
+            String value = in.readUTF();
+            readNames.add(value);
+            return value;
+        }
+    }
+
+    /**
+     * Reads straight from a (memory-mapped) buffer, without copying it into a stream first.
+     */
+    private static class BufferInput implements CodecInput {
+        private final ByteBuffer buffer;
+
+        BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private ByteBuffer require(int bytes) throws EOFException {
+            if (buffer.remaining() < bytes) {
+                throw new EOFException();
+            }
+            return buffer;
+        }
+
+        @Override
+        public boolean readBoolean() throws IOException {
+            return require(1).get() != 0;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            return require(1).get();
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return require(4).getInt();
+        }
+
+        /**
+         * Decodes the modified UTF-8 that DataOutput.writeUTF produces: a length, then one to three bytes per char.
+         */
+        @Override
+        public String readUTF() throws IOException {
+            int length = require(2).getShort() & 0xFFFF;
+            require(length);
+            int end = buffer.position() + length;
+            char[] chars = new char[length];
+            int count = 0;
+            while (buffer.position() < end) {
+                int first = buffer.get() & 0xFF;
+                if (first < 0x80) {
+                    chars[count++] = (char) first;
+                } else if ((first & 0xE0) == 0xC0) {
+                    chars[count++] = (char) (((first & 0x1F) << 6) | continuation(end));
+                } else if ((first & 0xF0) == 0xE0) {
+                    int second = continuation(end);
+                    chars[count++] = (char) (((first & 0x0F) << 12) | (second << 6) | continuation(end));
+                } else {
+                    throw new UTFDataFormatException("Malformed string in snapshot");
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private int continuation(int end) throws UTFDataFormatException {
+            if (buffer.position() == end) {
+                throw new UTFDataFormatException("Malformed string in snapshot");
+            }
+            int next = buffer.get() & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                throw new UTFDataFormatException("Malformed string in snapshot");
+            }
+            return next & 0x3F;
+        }
+    }
+}
@@ -1,42 +1,250 @@
 package datasource;
 
+import domain.PipelineProfile;
+
 import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
- * Responsible for loading .class files from a folder path.
+ * Responsible for loading .class files from a folder path or an archive (.jar, .war, .ear, .zip).
  * Returns a map of file paths to their byte array contents.
+ *
+ * Archives are opened through the zip file system, so nothing is extracted to disk.
+ * Classes inside an archive are keyed as "archive!/entry", and nested archives
+ * (e.g. BOOT-INF/lib or WEB-INF/lib) are streamed in place as "archive!/lib.jar!/entry".
+ *
+ * With a parallelism above one, files are read concurrently on a bounded thread pool.
+ * Files that cannot be read are skipped and reported through getErrors().
  */
 public class DataLoader {
 
+    // Files handed to one worker at a time, so tiny reads don't drown in task overhead
+    private static final int BATCH_SIZE = 256;
+
+    static final String PROFILE_STAGE = "Load class files";
+
+    private final int parallelism;
+    private final List<LoadError> errors = Collections.synchronizedList(new ArrayList<>());
+    private PipelineProfile profile;
+
+    public DataLoader() {
+        this(1);
+    }
+
+    public DataLoader(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Records the time, CPU and allocations spent loading, including on the worker threads. Pass null to stop.
+     */
+    public void setProfile(PipelineProfile profile) {
+        this.profile = profile;
+    }
+
     public Map<String, byte[]> loadClassFiles(String folderPath) throws IOException {
+        if (profile == null) {
+            return findAndLoad(folderPath);
+        }
+
+        PipelineProfile.Stage stage = profile.getStage(PROFILE_STAGE, "files", "bytes");
+        PipelineProfile.Measurement measurement = stage.begin();
+        Map<String, byte[]> classFiles = findAndLoad(folderPath);
+        measurement.end();
+
+        long bytes = 0;
+        for (byte[] bytecode : classFiles.values()) {
+            bytes += bytecode.length;
+        }
+        stage.addCounts(classFiles.size(), bytes);
+        return classFiles;
+    }
+
+    private Map<String, byte[]> findAndLoad(String folderPath) throws IOException {
         Path folder = Paths.get(folderPath);
-        Map<String, byte[]> classFiles = new HashMap<>();
+        errors.clear();
 
         if (!Files.exists(folder)) {
             throw new IOException("Folder does not exist: " + folderPath);
         }
 
-        if (!Files.isDirectory(folder)) {
-            throw new IOException("Path is not a directory: " + folderPath);
+        if (Files.isDirectory(folder)) {
+            List<Path> classPaths;
+            try (Stream<Path> paths = Files.walk(folder)) {
+                classPaths = paths.filter(Files::isRegularFile).filter(path->path.toString().endsWith(".class")).collect(Collectors.toList());
+            }
+            return load(classPaths, new ArrayList<>(), "");
+        }
+
+        if (!isArchive(folder)) {
+            throw new IOException("Path is not a directory or archive (.jar, .war, .ear, .zip): " + folderPath);
         }
 
-        try (Stream<Path> paths = Files.walk(folder)) {
-            paths.filter(Files::isRegularFile).filter(path->path.toString().endsWith(".class")).forEach(path->{
-                try {
-                    byte[] bytes = Files.readAllBytes(path);
-                    classFiles.put(path.toString(), bytes);
-                } catch (IOException e) {
-                    System.err.println("Error reading file: " + path);
+        try (FileSystem archive = FileSystems.newFileSystem(folder, (ClassLoader) null)) {
+            List<Path> classPaths = new ArrayList<>();
+            List<Path> nestedArchives = new ArrayList<>();
+            for (Path root : archive.getRootDirectories()) {
+                try (Stream<Path> paths = Files.walk(root)) {
+                    paths.filter(Files::isRegularFile).forEach(path -> {
+                        if (path.toString().endsWith(".class")) {
+                            classPaths.add(path);
+                        } else if (isArchive(path)) {
+                            nestedArchives.add(path);
+                        }
+                    });
                 }
-            });
+            }
+            return load(classPaths, nestedArchives, folderPath + "!");
         }
+    }
 
+    /**
+     * Reads just the given class files, e.g. the ones reported changed by a file watcher.
+     * Keys are the paths' string form, matching loadClassFiles on the enclosing folder.
+     */
+    public Map<String, byte[]> loadClassFiles(Collection<Path> classPaths) {
+        errors.clear();
+        Map<String, byte[]> classFiles = new HashMap<>();
+        readBatch(new ArrayList<>(classPaths), "", classFiles);
         return classFiles;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the files that could not be read during the last call to loadClassFiles.
+     */
+    public List<LoadError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    private Map<String, byte[]> load(List<Path> classPaths, List<Path> nestedArchives, String keyPrefix) throws IOException {
+        if (parallelism == 1 || (classPaths.size() <= BATCH_SIZE && nestedArchives.isEmpty())) {
+            Map<String, byte[]> classFiles = new HashMap<>();
+            readBatch(classPaths, keyPrefix, classFiles);
+            for (Path nested : nestedArchives) {
+                readNestedArchive(nested, keyPrefix, classFiles);
+            }
+            return classFiles;
+        }
+
+        return loadInParallel(classPaths, nestedArchives, keyPrefix);
+    }
+
+    private Map<String, byte[]> loadInParallel(List<Path> classPaths, List<Path> nestedArchives, String keyPrefix) throws IOException {
+        Map<String, byte[]> classFiles = new ConcurrentHashMap<>(classPaths.size() * 4 / 3 + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "class-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (int start = 0; start < classPaths.size(); start += BATCH_SIZE) {
+                List<Path> batch = classPaths.subList(start, Math.min(start + BATCH_SIZE, classPaths.size()));
+                batches.add(executor.submit(measured(() -> readBatch(batch, keyPrefix, classFiles))));
+            }
+            for (Path nested : nestedArchives) {
+                batches.add(executor.submit(measured(() -> readNestedArchive(nested, keyPrefix, classFiles))));
+            }
+
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading class files", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to load class files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return classFiles;
+    }
+
+    // Work on the pool threads is invisible to the caller's measurement, so each task measures itself
+    private Runnable measured(Runnable work) {
+        PipelineProfile current = profile;
+        if (current == null) {
+            return work;
+        }
+        PipelineProfile.Stage stage = current.getStage(PROFILE_STAGE, "files", "bytes");
+        return () -> {
+            PipelineProfile.Measurement measurement = stage.beginWork();
+            work.run();
+            measurement.end();
+        };
+    }
+
+    private void readBatch(List<Path> batch, String keyPrefix, Map<String, byte[]> classFiles) {
+        for (Path path : batch) {
+            FileReadEvent event = new FileReadEvent();
+            event.begin();
+            try {
+                byte[] bytes = Files.readAllBytes(path);
+                classFiles.put(keyPrefix + path, bytes);
+                if (event.shouldCommit()) {
+                    event.path = keyPrefix + path;
+                    event.size = bytes.length;
+                    event.commit();
+                }
+            } catch (IOException e) {
+                errors.add(new LoadError(keyPrefix + path, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Streams the .class entries of an archive stored inside another archive, without extracting it.
+     */
+    private void readNestedArchive(Path nested, String keyPrefix, Map<String, byte[]> classFiles) {
+        String nestedKey = keyPrefix + nested + "!/";
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(nested));
+             ZipInputStream zip = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+                    FileReadEvent event = new FileReadEvent();
+                    event.begin();
+                    byte[] bytes = zip.readAllBytes();
+                    classFiles.put(nestedKey + entry.getName(), bytes);
+                    if (event.shouldCommit()) {
+                        event.path = nestedKey + entry.getName();
+                        event.size = bytes.length;
+                        event.commit();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            errors.add(new LoadError(keyPrefix + nested, e.getMessage()));
+        }
+    }
+
+    private boolean isArchive(Path path) {
+        String name = path.toString().toLowerCase();
+        return name.endsWith(".jar") || name.endsWith(".war") || name.endsWith(".ear") || name.endsWith(".zip");
+    }
+}
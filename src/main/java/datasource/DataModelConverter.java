@@ -1,5 +1,6 @@
 package datasource;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.Context;
 
 import java.util.Map;
@@ -11,4 +12,9 @@ import java.util.Map;
 public interface DataModelConverter {
 
     Context buildContext(Map<String, byte[]> classFiles, String folderPath);
+
+    /**
+     * Builds the context, reading each class only as deeply as the given depth requires.
+     */
+    Context buildContext(Map<String, byte[]> classFiles, String folderPath, AnalysisDepth depth);
 }
\ No newline at end of file
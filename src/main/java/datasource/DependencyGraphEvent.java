@@ -0,0 +1,22 @@
+package datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for building the dependency graph over all classes.
+ */
+@Name("linter.DependencyGraph")
+@Label("Dependency Graph Build")
+@Category({"Linter", "Conversion"})
+@Description("Linking all classes into the dependency graph")
+class DependencyGraphEvent extends jdk.jfr.Event {
+
+    @Label("Classes")
+    int classCount;
+
+    @Label("Edges")
+    int edgeCount;
+}
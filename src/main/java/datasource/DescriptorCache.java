@@ -0,0 +1,58 @@
+package datasource;
+
+import domain.internal_representation.SymbolTable;
+import org.objectweb.asm.Type;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes each distinct JVM descriptor or internal class name only once, straight to the
+ * SymbolTable id of the fully qualified type name the model uses. The same descriptors occur in
+ * thousands of fields, methods and local variables, so most lookups are a single map hit.
+ */
+class DescriptorCache {
+
+    private final SymbolTable symbols;
+
+    // Kept apart because an internal name like "I" would clash with the descriptor of int
+    private final Map<String, Integer> typeIdsByDescriptor = new ConcurrentHashMap<>();
+    private final Map<String, int[]> methodTypeIdsByDescriptor = new ConcurrentHashMap<>();
+    private final Map<String, Integer> typeIdsByInternalName = new ConcurrentHashMap<>();
+
+    DescriptorCache(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * The type id of a field or local variable descriptor such as "Ljava/util/List;" or "[I".
+     */
+    int getTypeId(String descriptor) {
+        return typeIdsByDescriptor.computeIfAbsent(descriptor,
+                key -> symbols.intern(Type.getType(key).getClassName()));
+    }
+
+    /**
+     * The type ids of a method descriptor: the return type first, then the parameter types.
+     * The array is shared, so callers must not modify it.
+     */
+    int[] getMethodTypeIds(String descriptor) {
+        return methodTypeIdsByDescriptor.computeIfAbsent(descriptor, key -> {
+            Type[] arguments = Type.getArgumentTypes(key);
+            int[] ids = new int[arguments.length + 1];
+            ids[0] = symbols.intern(Type.getReturnType(key).getClassName());
+            for (int i = 0; i < arguments.length; i++) {
+                ids[i + 1] = symbols.intern(arguments[i].getClassName());
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * The type id of an internal class name such as "java/lang/Object".
+     */
+    int getObjectTypeId(String internalName) {
+        return typeIdsByInternalName.computeIfAbsent(internalName,
+                key -> symbols.intern(Type.getObjectType(key).getClassName()));
+    }
+}
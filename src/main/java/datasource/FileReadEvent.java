@@ -0,0 +1,27 @@
+package datasource;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for reading one class file, from disk or from an archive.
+ */
+@Name("linter.FileRead")
+@Label("Class File Read")
+@Category({"Linter", "Loading"})
+// Emitted once per class from the same few call sites, so a stack trace would only add cost
+@StackTrace(false)
+@Description("Reading one class file")
+class FileReadEvent extends jdk.jfr.Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+}
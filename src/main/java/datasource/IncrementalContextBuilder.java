@@ -0,0 +1,169 @@
+package datasource;
+
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.BytecodeSource;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps a Context in memory and updates it when individual class files change.
+ * Only the touched files are converted again. If the set of classes stays the same,
+ * the dependency graph is copied with just the changed classes re-linked; otherwise it is rebuilt.
+ * Contexts returned earlier are never modified.
+ */
+public class IncrementalContextBuilder {
+
+    private final AsmConverter converter;
+    private final String folderPath;
+    private final AnalysisDepth depth;
+
+    // Same ordering as AsmConverter.buildContext, so class indices match a full rebuild
+    private final TreeMap<String, ClassInfo> classesByPath = new TreeMap<>();
+    private final BiFunction<String, byte[], BytecodeSource> bytecodeSources;
+    private final Map<String, BytecodeSource> sourcesByPath = new HashMap<>();
+
+    private final List<String> changedPaths = new ArrayList<>();
+    private final List<LoadError> errors = new ArrayList<>();
+    private Context context;
+
+    public IncrementalContextBuilder(AsmConverter converter, String folderPath, AnalysisDepth depth) {
+        this.converter = converter;
+        this.folderPath = folderPath;
+        this.depth = depth;
+        this.bytecodeSources = ClassFileSources.forRoot(folderPath);
+    }
+
+    /**
+     * Converts the full set of class files, keyed by path as returned by DataLoader.
+     */
+    public Context build(Map<String, byte[]> classFiles) {
+        classesByPath.clear();
+        sourcesByPath.clear();
+        changedPaths.clear();
+        errors.clear();
+
+        context = converter.buildContext(classFiles, folderPath, depth);
+
+        // buildContext orders classes by path, so they line up with the sorted keys
+        List<String> paths = new ArrayList<>(new TreeMap<>(classFiles).keySet());
+        SymbolTable symbols = context.getSymbolTable();
+        for (int i = 0; i < paths.size(); i++) {
+            ClassInfo classInfo = context.getClasses().get(i);
+            classesByPath.put(paths.get(i), classInfo);
+            sourcesByPath.put(paths.get(i), context.getBytecodeSources().get(symbols.getName(classInfo.getNameId())));
+        }
+        changedPaths.addAll(paths);
+
+        return context;
+    }
+
+    /**
+     * Applies a batch of file changes and returns the updated context.
+     * Files that fail to parse (e.g. caught half-written) keep their previous version and are reported in getErrors().
+     */
+    public Context update(Map<String, byte[]> changedFiles, Collection<String> removedPaths) {
+        changedPaths.clear();
+        errors.clear();
+
+        int[] previousNameIds = getClassNameIds();
+        int parsingOptions = converter.getParsingOptions(depth);
+
+        for (String path : removedPaths) {
+            if (classesByPath.remove(path) != null) {
+                sourcesByPath.remove(path);
+                changedPaths.add(path);
+            }
+        }
+
+        List<ClassInfo> changedClasses = new ArrayList<>();
+        for (Map.Entry<String, byte[]> file : changedFiles.entrySet()) {
+            try {
+                ClassInfo classInfo = converter.convertClass(file.getValue(), parsingOptions);
+                classesByPath.put(file.getKey(), classInfo);
+                sourcesByPath.put(file.getKey(), bytecodeSources.apply(file.getKey(), file.getValue()));
+                changedPaths.add(file.getKey());
+                changedClasses.add(classInfo);
+            } catch (RuntimeException e) {
+                errors.add(new LoadError(file.getKey(), "Could not parse class file: " + e));
+            }
+        }
+
+        List<ClassInfo> classes = new ArrayList<>(classesByPath.values());
+        DependencyInfo dependencyInfo;
+        if (Arrays.equals(getClassNameIds(), previousNameIds)) {
+            // Same classes in the same order: indices are unchanged, so only re-link what changed, in a copy
+            // that leaves the previous context's graph intact for checks that may still be reading it
+            DependencyInfo previous = context.getDependencyInfo();
+            int[] changedIndices = new int[changedClasses.size()];
+            for (int i = 0; i < changedIndices.length; i++) {
+                changedIndices[i] = previous.getClassIndexOfSymbol(changedClasses.get(i).getNameId());
+            }
+            dependencyInfo = previous.copyWithoutDependencies(changedIndices);
+            for (ClassInfo classInfo : changedClasses) {
+                converter.addDependencies(classInfo, dependencyInfo);
+            }
+        } else {
+            dependencyInfo = converter.convertDependencies(classes);
+        }
+
+        // Unchanged files keep their sources, which still check against the bytes converted back then
+        SymbolTable symbols = dependencyInfo.getSymbolTable();
+        Map<String, BytecodeSource> classBytecodeMap = new HashMap<>();
+        for (Map.Entry<String, ClassInfo> entry : classesByPath.entrySet()) {
+            classBytecodeMap.put(symbols.getName(entry.getValue().getNameId()), sourcesByPath.get(entry.getKey()));
+        }
+
+        context = new Context(classes, dependencyInfo, folderPath, classBytecodeMap);
+        return context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Paths that were added, modified or removed by the last build or update.
+     */
+    public List<String> getChangedPaths() {
+        return new ArrayList<>(changedPaths);
+    }
+
+    /**
+     * Paths of all classes currently loaded, in class order.
+     */
+    public List<String> getPaths() {
+        return new ArrayList<>(classesByPath.keySet());
+    }
+
+    /**
+     * The class currently loaded from the given path, or null if there is none.
+     */
+    public ClassInfo getClassInfo(String path) {
+        return classesByPath.get(path);
+    }
+
+    public List<LoadError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    // Ids stand for qualified names and the converter keeps its table, so equal ids mean the same classes
+    private int[] getClassNameIds() {
+        int[] ids = new int[classesByPath.size()];
+        int i = 0;
+        for (ClassInfo classInfo : classesByPath.values()) {
+            ids[i++] = classInfo.getNameId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,27 @@
+package datasource;
+
+/**
+ * Describes a single class file that could not be read while loading.
+ * Collected by DataLoader so callers can decide how to report them.
+ */
+public class LoadError {
+    private final String path;
+    private final String message;
+
+    public LoadError(String path, String message) {
+        this.path = path;
+        this.message = message;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String toString() {
+        return "Error reading file: " + path + " (" + message + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package domain;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one check task. Per-class checks that share a traversal are reported
+ * as one event naming all of them.
+ */
+@Name("linter.CheckExecution")
+@Label("Check Execution")
+@Category({"Linter", "Checks"})
+@Description("Running lint checks over the classes")
+class CheckExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Checks")
+    String checks;
+
+    @Label("Classes")
+    int classCount;
+}
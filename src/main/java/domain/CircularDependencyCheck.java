@@ -1,77 +1,268 @@
 package domain;
 
-import domain.internal_representation.ClassInfo;
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.Context;
 import domain.internal_representation.DependencyInfo;
 import domain.internal_representation.DependencyType;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Detects circular dependencies between classes.
- * Uses depth-first search to find cycles in the dependency graph.
+ * Finds the strongly connected components of the dependency graph with an iterative
+ * version of Tarjan's algorithm (O(V+E), no recursion), then reports each tangle once
+ * with its member classes and up to a configurable number of cycles through it.
+ *
+ * The first cycle reported is the shortest one in the tangle, found by a breadth-first search from
+ * every member (pruned by the shortest cycle so far); the violation is reported on the class that
+ * cycle starts from. For tangles of more than SHORTEST_CYCLE_STARTS classes only that many members
+ * are tried, so the search stays bounded and the cycle is then the shortest through one of them.
+ * Further cycles are the shortest through members no earlier cycle passed through.
  */
 public class CircularDependencyCheck implements LintCheck {
 
+    private static final int DEFAULT_MAX_CYCLES_PER_COMPONENT = 3;
+
+    // Members tried as the start of the shortest cycle; each try is one breadth-first search of the tangle
+    static final int SHORTEST_CYCLE_STARTS = 64;
+
+    private final int maxCyclesPerComponent;
+
+    public CircularDependencyCheck() {
+        this(DEFAULT_MAX_CYCLES_PER_COMPONENT);
+    }
+
+    public CircularDependencyCheck(int maxCyclesPerComponent) {
+        this.maxCyclesPerComponent = Math.max(1, maxCyclesPerComponent);
+    }
+
     @Override
     public List<Violation> analyze(Context context) {
         List<Violation> violations = new ArrayList<>();
+        analyze(context, violations::add);
+        return violations;
+    }
 
+    /**
+     * Reports each tangle as soon as its cycles are found. If the sink is cancelled the search stops,
+     * keeping the tangles already reported.
+     */
+    @Override
+    public void analyze(Context context, ViolationSink sink) {
         DependencyInfo dependencyInfo = context.getDependencyInfo();
-        List<ClassInfo> classes = context.getClasses();
+        int[] componentOf = new int[dependencyInfo.getSize()];
+        List<int[]> components = findStronglyConnectedComponents(dependencyInfo, componentOf, sink);
+        if (components == null) {
+            return;
+        }
 
-        Set<String> globalVisited = new HashSet<>();
+        int[] parent = new int[dependencyInfo.getSize()];
+        Arrays.fill(parent, -1);
+        int[] distance = new int[dependencyInfo.getSize()];
+        int[] queue = new int[dependencyInfo.getSize()];
 
-        for (ClassInfo classInfo : classes) {
-            String className = classInfo.getName();
+        for (int c = 0; c < components.size(); c++) {
+            if (sink.isCancelled()) {
+                return;
+            }
+            int[] members = components.get(c);
+            if (members.length == 1 && dependencyInfo.getDependency(members[0], members[0]) == DependencyType.NONE) {
+                continue;
+            }
+
+            List<Integer> shortest = null;
+            for (int m = 0; m < Math.min(members.length, SHORTEST_CYCLE_STARTS); m++) {
+                int limit = shortest == null ? Integer.MAX_VALUE : shortest.size() - 1;
+                List<Integer> cycle = findShortestCycle(members[m], c, limit, dependencyInfo, componentOf, parent, distance, queue);
+                if (cycle != null) {
+                    shortest = cycle;
+                }
+                if (shortest != null && shortest.size() == 2) {
+                    break; // A self-dependency; nothing is shorter
+                }
+            }
 
-            if (!globalVisited.contains(className)) {
-                Set<String> visitedInPath = new HashSet<>();
-                List<String> path = new ArrayList<>();
+            // Further cycles go through a member not covered yet, so every search yields a new cycle
+            boolean[] covered = new boolean[members.length];
+            List<String> cycles = new ArrayList<>();
+            cycles.add(describeCycle(shortest, members, covered, dependencyInfo));
+            for (int m = 0; m < members.length && cycles.size() < maxCyclesPerComponent; m++) {
+                if (!covered[m]) {
+                    List<Integer> cycle = findShortestCycle(members[m], c, Integer.MAX_VALUE, dependencyInfo, componentOf, parent, distance, queue);
+                    cycles.add(describeCycle(cycle, members, covered, dependencyInfo));
+                }
+            }
 
-                detectCycle(className, dependencyInfo, classes, visitedInPath, path, globalVisited, violations);
+            List<String> memberNames = new ArrayList<>();
+            for (int member : members) {
+                memberNames.add(dependencyInfo.getClassName(member));
             }
+
+            String message = "Circular dependency detected among " + members.length + " class(es) ("
+                    + String.join(", ", memberNames) + "): " + String.join("; ", cycles);
+            sink.accept(new Violation(getName(), dependencyInfo.getClassName(shortest.get(0)), message,
+                    dependencyInfo.getQualifiedClassName(shortest.get(0))));
         }
+    }
 
-        return violations;
+    /**
+     * Joins the cycle's class names and marks its members as covered.
+     */
+    private String describeCycle(List<Integer> cycle, int[] members, boolean[] covered, DependencyInfo dependencyInfo) {
+        List<String> names = new ArrayList<>();
+        for (int node : cycle) {
+            names.add(dependencyInfo.getClassName(node));
+            int position = Arrays.binarySearch(members, node);
+            if (position >= 0) {
+                covered[position] = true;
+            }
+        }
+        return String.join(" -> ", names);
     }
 
-    private void detectCycle(String currentClass, DependencyInfo dependencyInfo, List<ClassInfo> classes, Set<String> visitedInPath, List<String> path, Set<String> globalVisited, List<Violation> violations)
-    {
+    /**
+     * Iterative Tarjan's algorithm. Returns each component as a sorted array of class indices,
+     * ordered by its smallest member, and records the component number of every class in componentOf.
+     * Returns null if the sink was cancelled before the search finished.
+     */
+    private List<int[]> findStronglyConnectedComponents(DependencyInfo dependencyInfo, int[] componentOf, ViolationSink sink) {
+        int size = dependencyInfo.getSize();
+        int[] order = new int[size];
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        Arrays.fill(order, -1);
 
-        if (visitedInPath.contains(currentClass)) {
-            // Cycle detected
-            int cycleStart = path.indexOf(currentClass);
-            List<String> cycle = new ArrayList<>(path.subList(cycleStart, path.size()));
-            cycle.add(currentClass);
+        int[] stack = new int[size];
+        int stackSize = 0;
 
-            String cyclePath = String.join(" -> ", cycle);
-            violations.add(new Violation(getName(),currentClass, "Circular dependency detected: " + cyclePath));
-            return;
+        // Explicit call stack: the node being visited and how many of its edges were followed
+        int[] callNode = new int[size];
+        int[] callEdge = new int[size];
+
+        List<int[]> components = new ArrayList<>();
+        int counter = 0;
+
+        for (int start = 0; start < size; start++) {
+            if (order[start] != -1) {
+                continue;
+            }
+            if ((start & 1023) == 0 && sink.isCancelled()) {
+                return null;
+            }
+
+            int depth = 0;
+            callNode[0] = start;
+            callEdge[0] = 0;
+            order[start] = lowLink[start] = counter++;
+            stack[stackSize++] = start;
+            onStack[start] = true;
+
+            while (depth >= 0) {
+                int node = callNode[depth];
+
+                if (callEdge[depth] < dependencyInfo.getSuccessorCount(node)) {
+                    int next = dependencyInfo.getSuccessor(node, callEdge[depth]++);
+                    if (order[next] == -1) {
+                        depth++;
+                        callNode[depth] = next;
+                        callEdge[depth] = 0;
+                        order[next] = lowLink[next] = counter++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                    } else if (onStack[next]) {
+                        lowLink[node] = Math.min(lowLink[node], order[next]);
+                    }
+                    continue;
+                }
+
+                // All edges followed: close the component if this node is its root
+                if (lowLink[node] == order[node]) {
+                    int end = stackSize;
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                    } while (member != node);
+
+                    int[] component = Arrays.copyOfRange(stack, stackSize, end);
+                    Arrays.sort(component);
+                    components.add(component);
+                }
+
+                depth--;
+                if (depth >= 0) {
+                    int caller = callNode[depth];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[node]);
+                }
+            }
         }
 
-        if (globalVisited.contains(currentClass)) {
-            return;
+        components.sort(Comparator.comparingInt(component -> component[0]));
+        for (int c = 0; c < components.size(); c++) {
+            for (int member : components.get(c)) {
+                componentOf[member] = c;
+            }
         }
+        return components;
+    }
 
-        visitedInPath.add(currentClass);
-        path.add(currentClass);
+    /**
+     * Breadth-first search inside one component for the shortest cycle that starts and ends at start
+     * and has fewer than maxEdges edges. Returns null if there is no such cycle.
+     */
+    private List<Integer> findShortestCycle(int start, int component, int maxEdges, DependencyInfo dependencyInfo,
+                                            int[] componentOf, int[] parent, int[] distance, int[] queue) {
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        parent[start] = start;
+        distance[start] = 0;
+        int last = -1;
 
-        for (ClassInfo classInfo : classes) {
-            String dependentClass = classInfo.getName();
-            DependencyType depType = dependencyInfo.getDependency(currentClass, dependentClass);
+        while (head < tail && last == -1) {
+            int node = queue[head++];
+            // Closing the cycle from here takes distance + 1 edges; stop once that cannot beat maxEdges
+            if (distance[node] + 1 >= maxEdges) {
+                break;
+            }
+            for (int k = 0; k < dependencyInfo.getSuccessorCount(node); k++) {
+                int next = dependencyInfo.getSuccessor(node, k);
+                if (next == start) {
+                    last = node;
+                    break;
+                }
+                if (componentOf[next] == component && parent[next] == -1) {
+                    parent[next] = node;
+                    distance[next] = distance[node] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
 
-            if (depType != DependencyType.NONE) {
-                detectCycle(dependentClass, dependencyInfo, classes, visitedInPath, path, globalVisited, violations);
+        if (last == -1) {
+            for (int i = 0; i < tail; i++) {
+                parent[queue[i]] = -1;
             }
+            return null;
         }
 
-        path.remove(path.size() - 1);
-        visitedInPath.remove(currentClass);
-        globalVisited.add(currentClass);
+        List<Integer> cycle = new ArrayList<>();
+        cycle.add(start);
+        for (int node = last; node != start; node = parent[node]) {
+            cycle.add(node);
+        }
+        cycle.add(start);
+        Collections.reverse(cycle);
+
+        // Every node this search marked is in the queue, so only those need resetting
+        for (int i = 0; i < tail; i++) {
+            parent[queue[i]] = -1;
+        }
+        return cycle;
     }
 
     @Override
@@ -83,4 +274,9 @@ public class CircularDependencyCheck implements LintCheck {
     public String getDescription() {
         return "Detects circular dependencies between classes where Class A depends on Class B and Class B depends on Class A (directly or indirectly).";
     }
-}
\ No newline at end of file
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.LOCAL_VARIABLES;
+    }
+}
@@ -1,5 +1,6 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.ClassInfo;
 import domain.internal_representation.MethodInfo;
 
@@ -37,4 +38,9 @@ public class EqualsHashCodeCheck extends PerClassLintCheck {
     public String getDescription() {
         return "Detects classes that override equals() or hashCode() but not both";
     }
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.MEMBERS;
+    }
 }
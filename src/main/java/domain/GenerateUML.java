@@ -1,25 +1,31 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.ClassInfo;
 import domain.internal_representation.Context;
 import domain.internal_representation.DependencyInfo;
 import domain.internal_representation.DependencyType;
+import domain.internal_representation.FieldInfo;
+import domain.internal_representation.MethodInfo;
+import domain.internal_representation.Visibility;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Generates a PlantUML diagram for the entire package using GenUML.
+ * Generates a PlantUML diagram for the entire package.
  * Creates a .puml file in the specified folder path with all classes and their dependencies.
+ * Class bodies are rendered in-process from ClassInfo, in the same layout GenUML produces,
+ * so no external tool, temp files or subprocesses are needed.
  */
 
 
@@ -42,79 +48,162 @@ public class GenerateUML implements LintCheck {
     @Override
     public List<Violation> analyze(Context context) {
         List<Violation> violations = new ArrayList<>();
+        analyze(context, violations::add);
+        return violations;
+    }
 
+    /**
+     * If the sink is cancelled while the diagram is being built, no file is written,
+     * so a half-finished diagram never replaces a complete one.
+     */
+    @Override
+    public void analyze(Context context, ViolationSink sink) {
         try {
-            String pumlContent = generatePlantUmlDiagram(context);
-            writePlantUmlFile(context.getFolderPath(), pumlContent);
+            String pumlContent = generatePlantUmlDiagram(context, sink);
+            if (pumlContent != null) {
+                writePlantUmlFile(context.getFolderPath(), pumlContent);
+            }
         } catch (Exception e) {
-            violations.add(new Violation(getName(), "PackageGeneration", "Failed to generate PlantUML diagram: " + e.getMessage()
+            sink.accept(new Violation(getName(), "PackageGeneration", "Failed to generate PlantUML diagram: " + e.getMessage()
             ));
         }
-
-        return violations;
     }
 
-    private String generatePlantUmlDiagram(Context context) throws IOException, InterruptedException {
+    private String generatePlantUmlDiagram(Context context, ViolationSink sink) {
         StringBuilder plantUml = new StringBuilder();
         plantUml.append("@startuml\n\n");
 
-        // Create temporary directory for class files
-        Path tempDir = Files.createTempDirectory("genuml_temp");
-
-        try {
-            // Generate class definitions using GenUML
-            for (ClassInfo classInfo : context.getClasses()) {
-                String className = classInfo.getName();
-                byte[] bytecode = context.getClassBytecode(className);
-
-                if (bytecode != null) {
-                    String classDefinition = generateClassDefinition(className, bytecode, tempDir);
-                    plantUml.append(classDefinition).append("\n");
-                }
+        // Class definitions, rendered straight from the internal representation
+        List<ClassInfo> classes = context.getClasses();
+        String[] aliases = createAliases(classes);
+        for (int i = 0; i < classes.size(); i++) {
+            if (sink.isCancelled()) {
+                return null;
             }
+            appendClassDefinition(plantUml, classes.get(i), aliases[i]);
+            plantUml.append("\n");
+        }
 
-            // Add dependency relationships
-            plantUml.append(generateDependencyRelationships(context));
-
-        } finally {
-            // Clean up temporary directory
-            deleteDirectory(tempDir.toFile());
+        // Add dependency relationships
+        String relationships = generateDependencyRelationships(context, aliases, sink);
+        if (relationships == null) {
+            return null;
         }
+        plantUml.append(relationships);
 
         plantUml.append("\n@enduml\n");
         return plantUml.toString();
     }
 
-    private String generateClassDefinition(String className, byte[] bytecode, Path tempDir)
-            throws IOException, InterruptedException {
-
-        // Write bytecode to temporary file
-        String simpleClassName = className.substring(className.lastIndexOf('.') + 1);
-        Path classFile = tempDir.resolve(simpleClassName + ".class");
-        Files.write(classFile, bytecode);
-
-        // Execute genuml command
-        ProcessBuilder processBuilder=new ProcessBuilder("genuml", "generate", classFile.toString());
-        processBuilder.redirectErrorStream(true);
-        Process process = processBuilder.start();
-
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream())))
-        {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Skip @startuml and @enduml lines as we'll add them ourselves
-                if (!line.trim().equals("@startuml") && !line.trim().equals("@enduml")) {
-                    output.append(line).append("\n");
+    /**
+     * PlantUML identifiers for the classes, in class order: the qualified name with every character
+     * other than a letter, digit or underscore replaced by an underscore, e.g. "com_example_Order".
+     * Classes sharing a simple name in different packages are therefore separate nodes; if two names
+     * still map to the same identifier, the later one gets a numeric suffix.
+     */
+    private String[] createAliases(List<ClassInfo> classes) {
+        String[] aliases = new String[classes.size()];
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < aliases.length; i++) {
+            char[] alias = classes.get(i).getQualifiedName().toCharArray();
+            for (int c = 0; c < alias.length; c++) {
+                if (!(Character.isLetterOrDigit(alias[c]) || alias[c] == '_')) {
+                    alias[c] = '_';
+                }
+            }
+            String candidate = new String(alias);
+            for (int suffix = 2; !used.add(candidate); suffix++) {
+                candidate = new String(alias) + "_" + suffix;
+            }
+            aliases[i] = candidate;
+        }
+        return aliases;
+    }
+
+    /**
+     * Renders one class body in the same layout GenUML uses:
+     * the package name, then fields and then methods, each section separated by "--".
+     * The class is shown under its simple name and declared with its alias, which the relationships refer to.
+     */
+    private void appendClassDefinition(StringBuilder plantUml, ClassInfo classInfo, String alias) {
+        plantUml.append(getClassKeyword(classInfo)).append(" \"").append(classInfo.getName()).append("\" as ").append(alias).append(" {\n");
+        if (!classInfo.getPackageName().isEmpty()) {
+            plantUml.append("  ").append(classInfo.getPackageName()).append("\n");
+        }
+
+        if (!classInfo.getFields().isEmpty()) {
+            plantUml.append("  --\n");
+            for (FieldInfo field : classInfo.getFields()) {
+                plantUml.append("  ").append(getVisibilitySymbol(field.getVisibility())).append(" ");
+                if (field.isStatic()) {
+                    plantUml.append("{static} ");
+                }
+                plantUml.append(field.getName()).append(": ").append(field.getType()).append("\n");
+            }
+        }
+
+        List<MethodInfo> methods = new ArrayList<>();
+        for (MethodInfo method : classInfo.getMethods()) {
+            // Static initializers are not part of the class's interface
+            if (!method.getName().equals("<clinit>")) {
+                methods.add(method);
+            }
+        }
+
+        if (!methods.isEmpty()) {
+            plantUml.append("  --\n");
+            for (MethodInfo method : methods) {
+                plantUml.append("  ").append(getVisibilitySymbol(method.getVisibility())).append(" ");
+                if (method.isStatic()) {
+                    plantUml.append("{static} ");
+                }
+                if (method.isAbstract()) {
+                    plantUml.append("{abstract} ");
+                }
+
+                // Constructors are shown under the class name, without a return type
+                boolean isConstructor = method.getName().equals("<init>");
+                plantUml.append(isConstructor ? classInfo.getName() : method.getName());
+                plantUml.append("(").append(String.join(", ", method.getParameterTypes())).append("): ");
+                if (!isConstructor) {
+                    plantUml.append(method.getReturnType());
                 }
+                plantUml.append("\n");
             }
         }
 
-        process.waitFor();
-        return output.toString();
+        plantUml.append("}\n");
+    }
+
+    private String getClassKeyword(ClassInfo classInfo) {
+        if (classInfo.isInterface()) {
+            return "interface";
+        }
+        if (classInfo.isEnum()) {
+            return "enum";
+        }
+        if (classInfo.isAbstract()) {
+            return "abstract";
+        }
+        return "class";
+    }
+
+    private String getVisibilitySymbol(Visibility visibility) {
+        switch (visibility) {
+            case PUBLIC:
+                return "+";
+            case PROTECTED:
+                return "#";
+            case PRIVATE:
+                return "-";
+            case PACKAGE:
+            default:
+                return "~";
+        }
     }
 
-    private String generateDependencyRelationships(Context context) {
+    // Graph index i is class i of the context, so both are named by aliases[i]
+    private String generateDependencyRelationships(Context context, String[] aliases, ViolationSink sink) {
         StringBuilder relationships = new StringBuilder();
         relationships.append("' Relationships\n");
 
@@ -122,15 +211,27 @@ public class GenerateUML implements LintCheck {
         List<ClassInfo> classes = context.getClasses();
 
         for (ClassInfo fromClass : classes) {
-            String fromClassName = fromClass.getName();
+            if (sink.isCancelled()) {
+                return null;
+            }
+            int fromIndex = dependencyInfo.getClassIndexOfSymbol(fromClass.getNameId());
+            if (fromIndex == -1) {
+                continue;
+            }
+
+            // Walk only the real edges, in class order so the diagram is stable between runs
+            int[] targets = new int[dependencyInfo.getSuccessorCount(fromIndex)];
+            for (int k = 0; k < targets.length; k++) {
+                targets[k] = dependencyInfo.getSuccessor(fromIndex, k);
+            }
+            Arrays.sort(targets);
 
-            for (ClassInfo toClass : classes) {
-                String toClassName = toClass.getName();
-                DependencyType depType = dependencyInfo.getDependency(fromClass.getName(), toClass.getName());
+            for (int toIndex : targets) {
+                DependencyType depType = dependencyInfo.getDependency(fromIndex, toIndex);
 
                 String arrow = getPlantUmlArrow(depType);
                 if (arrow != null) {
-                    relationships.append(fromClassName).append(" ").append(arrow).append(" ").append(toClassName).append("\n");
+                    relationships.append(aliases[fromIndex]).append(" ").append(arrow).append(" ").append(aliases[toIndex]).append("\n");
                 }
             }
         }
@@ -157,28 +258,17 @@ public class GenerateUML implements LintCheck {
     }
 
     private void writePlantUmlFile(String folderPath, String content) throws IOException {
-        Path outputPath = Paths.get(folderPath, "design.puml");
+        Path folder = Paths.get(folderPath);
+        // When linting an archive, write the diagram next to it
+        if (!Files.isDirectory(folder)) {
+            folder = folder.toAbsolutePath().getParent();
+        }
+        Path outputPath = folder.resolve("design.puml");
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath.toFile()))) {
             writer.write(content);
         }
     }
 
-    private void deleteDirectory(File directory) {
-        if (directory.exists()) {
-            File[] files = directory.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    if (file.isDirectory()) {
-                        deleteDirectory(file);
-                    } else {
-                        file.delete();
-                    }
-                }
-            }
-            directory.delete();
-        }
-    }
-
     @Override
     public String getName() {
         return "Generate PlantUML Diagram";
@@ -188,4 +278,9 @@ public class GenerateUML implements LintCheck {
     public String getDescription() {
         return "Generates a PlantUML class diagram for the entire package including all dependencies.";
     }
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.LOCAL_VARIABLES;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.ClassInfo;
 import domain.internal_representation.MethodInfo;
 
@@ -58,4 +59,9 @@ public class HasPublicConstructorCheck extends PerClassLintCheck {
     public String getDescription() {
         return "Flags public classes that expose public constructors (explicit or implicit), to discourage direct instantiation.";
     }
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.MEMBERS;
+    }
 }
\ No newline at end of file
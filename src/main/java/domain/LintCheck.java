@@ -1,5 +1,6 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.Context;
 
 import java.util.List;
@@ -12,7 +13,22 @@ public interface LintCheck {
 
     List<Violation> analyze(Context context);
 
+    /**
+     * Streaming form of analyze: passes each violation to the sink instead of returning a list.
+     * Checks that can produce violations incrementally should override this.
+     */
+    default void analyze(Context context, ViolationSink sink) {
+        for (Violation violation : analyze(context)) {
+            sink.accept(violation);
+        }
+    }
+
     String getName();
 
     String getDescription();
+
+    /**
+     * How much of each class this check needs, so the converter can skip parsing the rest.
+     */
+    AnalysisDepth getRequiredDepth();
 }
\ No newline at end of file
@@ -1,15 +1,36 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.ClassInfo;
 import domain.internal_representation.Context;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * The main engine that coordinates running lint checks on classes.
  * Maintains a collection of checks and applies them to analyzed classes.
+ *
+ * Checks only read the shared Context, so they can also be run concurrently on an executor.
+ * All selected per-class checks are fused into a single traversal of the classes.
+ * Violations are always returned grouped in the order the checks were selected.
  */
 public class LintEngine {
     private final List<LintCheck> checks = new ArrayList<>();
+    private PerClassResultCache resultCache;
+    private boolean verbose = true;
+    private PipelineProfile profile;
+    private long checkTimeoutNanos;
+    private long totalTimeoutNanos;
 
     // new constructor
     public LintEngine(String input) {
@@ -25,8 +46,13 @@ public class LintEngine {
             return;
         }
 
+        // A check selected twice still runs once
+        Set<String> selected = new HashSet<>();
         String[] selections = input.split(",");
         for (String selection : selections) {
+            if (!selected.add(selection.trim())) {
+                continue;
+            }
             switch (selection.trim()) {
                 case "1":
                     checks.add(new EqualsHashCodeCheck());
@@ -59,14 +85,468 @@ public class LintEngine {
         return checks.size();
     }
 
+    /**
+     * The selected checks, in the order their results are reported.
+     */
+    public List<LintCheck> getChecks() {
+        return Collections.unmodifiableList(checks);
+    }
+
+    /**
+     * Lets per-class checks reuse results cached for unchanged classes. Pass null to disable.
+     */
+    public void setResultCache(PerClassResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Whether to print a "Running: ..." line for each check when a run starts (on by default).
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Records time, CPU and allocations of every check in later analyzeAll runs. Pass null to stop.
+     * While profiling, per-class checks are not fused, so that each check's cost can be measured on its own.
+     */
+    public void setProfile(PipelineProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Gives every check task at most this long, counted from when it starts; 0 (the default) means no limit.
+     * Checks are asked to stop through ViolationSink.isCancelled() and keep the violations found so far.
+     * When run on an executor, a task that does not stop in time is abandoned: its later violations are
+     * dropped and the run moves on. Either way the check's results end with a violation marking them incomplete.
+     */
+    public void setCheckTimeout(long millis) {
+        this.checkTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    /**
+     * Limits a whole analyzeAll run to this long; 0 (the default) means no limit. Checks still running
+     * at the deadline are stopped like with setCheckTimeout, and checks that have not started yet are skipped.
+     */
+    public void setTotalTimeout(long millis) {
+        this.totalTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
+    /**
+     * The deepest representation any selected check needs.
+     */
+    public AnalysisDepth getRequiredDepth() {
+        AnalysisDepth depth = AnalysisDepth.HEADER;
+        for (LintCheck check : checks) {
+            depth = depth.max(check.getRequiredDepth());
+        }
+        return depth;
+    }
+
     public List<Violation> analyzeAll(Context context) {
-        List<Violation> allViolations = new ArrayList<>();
+        List<List<Violation>> results = createResultLists();
+        List<ViolationSink> sinks = createListSinks(results);
+
+        for (CheckTask task : createTasks(context, sinks, true)) {
+            task.run();
+            reportIfIncomplete(task, sinks);
+        }
+
+        return mergeResults(results);
+    }
+
+    /**
+     * Runs the checks one after another, passing every violation to the sink as soon as it is found.
+     * Per-class checks share one traversal, so their violations arrive class by class rather than grouped per check.
+     */
+    public void analyzeAll(Context context, ViolationSink sink) {
+        List<ViolationSink> sinks = Collections.nCopies(checks.size(), sink);
+        for (CheckTask task : createTasks(context, sinks, true)) {
+            task.run();
+            reportIfIncomplete(task, sinks);
+        }
+    }
+
+    /**
+     * Runs the checks as tasks on the given executor and merges the results in check order.
+     * The executor is not shut down; the caller owns it.
+     */
+    public List<Violation> analyzeAll(Context context, ExecutorService executor) {
+        List<List<Violation>> results = createResultLists();
+        List<ViolationSink> sinks = createListSinks(results);
+        runAll(createTasks(context, sinks, true), sinks, executor, task -> { });
+        return mergeResults(results);
+    }
+
+    /**
+     * Runs the checks as tasks on the given executor, streaming violations to the sink.
+     * The first task writes to the sink directly while it runs; the results of the others are
+     * buffered and passed on in task order once each has finished, so the sink is never called
+     * by two threads at once. The executor is not shut down; the caller owns it.
+     */
+    public void analyzeAll(Context context, ExecutorService executor, ViolationSink sink) {
+        List<List<Violation>> buffers = createResultLists();
+        List<ViolationSink> sinks = new ArrayList<>(createListSinks(buffers));
+        List<CheckTask> tasks = createTasks(context, sinks, true);
+
+        // Route the first task straight to the sink; every task only reads its sinks when it runs
+        if (!tasks.isEmpty()) {
+            for (int position : tasks.get(0).positions) {
+                sinks.set(position, sink);
+            }
+        }
 
+        runAll(tasks, sinks, executor, task -> {
+            if (task != tasks.get(0)) {
+                for (int position : task.positions) {
+                    buffers.get(position).forEach(sink::accept);
+                    buffers.get(position).clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs only the selected per-class checks, on a single class.
+     * Used to re-check classes that changed without re-running everything.
+     */
+    public List<Violation> analyzeClass(ClassInfo classInfo) {
+        List<PerClassLintCheck> perClassChecks = new ArrayList<>();
         for (LintCheck check : checks) {
-            System.out.println("  Running: " + check.getName());
-            allViolations.addAll(check.analyze(context));
+            if (check instanceof PerClassLintCheck) {
+                perClassChecks.add((PerClassLintCheck) check);
+            }
+        }
+
+        return mergeResults(PerClassLintCheck.analyzeTogether(perClassChecks, Collections.singletonList(classInfo), resultCache));
+    }
+
+    /**
+     * Runs only the selected checks that look at the codebase as a whole (everything except per-class checks),
+     * one after another and within the same time limits as analyzeAll.
+     */
+    public List<Violation> analyzeProgram(Context context) {
+        List<List<Violation>> results = createResultLists();
+        List<ViolationSink> sinks = createListSinks(results);
+
+        for (CheckTask task : createTasks(context, sinks, false)) {
+            task.run();
+            reportIfIncomplete(task, sinks);
+        }
+
+        return mergeResults(results);
+    }
+
+    /**
+     * Submits the tasks and waits for them in order, calling onFinished for each one as it completes
+     * or is abandoned for running out of time.
+     */
+    private void runAll(List<CheckTask> tasks, List<ViolationSink> sinks, ExecutorService executor, Consumer<CheckTask> onFinished) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (CheckTask task : tasks) {
+            futures.add(executor.submit(task));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                await(tasks.get(i), futures.get(i));
+                reportIfIncomplete(tasks.get(i), sinks);
+                onFinished.accept(tasks.get(i));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running lint checks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Lint check failed", e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Waits for the task to finish, or until its time budget runs out. A task that is out of time is abandoned:
+     * it can no longer report violations, and its thread is interrupted in case it is blocked.
+     */
+    private void await(CheckTask task, Future<?> future) throws InterruptedException, ExecutionException {
+        if (task.budget == null) {
+            future.get();
+            return;
+        }
+
+        while (true) {
+            long wait = task.budget.getNanosToWait();
+            if (wait > 0) {
+                try {
+                    future.get(wait, TimeUnit.NANOSECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    continue;
+                }
+            }
+            if (future.isDone()) {
+                future.get();
+                return;
+            }
+            task.budget.abandon();
+            future.cancel(true);
+            return;
+        }
+    }
+
+    /**
+     * Ends the results of every check in the task with a violation saying they are incomplete, if the task ran out of time.
+     */
+    private void reportIfIncomplete(CheckTask task, List<ViolationSink> sinks) {
+        if (task.budget == null || !task.budget.isIncomplete()) {
+            return;
+        }
+        for (int position : task.positions) {
+            sinks.get(position).accept(new Violation(checks.get(position).getName(), "TimeBudget", task.budget.getReason()));
+        }
+    }
+
+    /**
+     * Splits the selected checks into independent tasks. All per-class checks share one task
+     * that walks the classes once and comes first; every other check gets a task of its own.
+     * Each check sends its violations to the sink at its own position in sinks.
+     * Without perClass, per-class checks are left out and nothing is printed.
+     */
+    private List<CheckTask> createTasks(Context context, List<ViolationSink> sinks, boolean perClass) {
+        List<CheckTask> tasks = new ArrayList<>();
+        List<PerClassLintCheck> perClassChecks = new ArrayList<>();
+        List<Integer> perClassPositions = new ArrayList<>();
+        long globalDeadline = totalTimeoutNanos > 0 ? System.nanoTime() + totalTimeoutNanos : 0;
+
+        for (int i = 0; i < checks.size(); i++) {
+            LintCheck check = checks.get(i);
+            if (!perClass && check instanceof PerClassLintCheck) {
+                continue;
+            }
+            if (verbose && perClass) {
+                System.out.println("  Running: " + check.getName());
+            }
+
+            int position = i;
+            if (check instanceof PerClassLintCheck && profile == null) {
+                perClassChecks.add((PerClassLintCheck) check);
+                perClassPositions.add(i);
+            } else if (check instanceof PerClassLintCheck) {
+                List<PerClassLintCheck> single = Collections.singletonList((PerClassLintCheck) check);
+                TaskBudget budget = createBudget(globalDeadline);
+                tasks.add(new CheckTask(Collections.singletonList(position), check.getName(), context.getClassCount(), budget,
+                        createWork(check, context, sinks, position, budget,
+                                sink -> PerClassLintCheck.analyzeTogether(single, context.getClasses(), resultCache, Collections.singletonList(sink)))));
+            } else {
+                TaskBudget budget = createBudget(globalDeadline);
+                tasks.add(new CheckTask(Collections.singletonList(position), check.getName(), context.getClassCount(), budget,
+                        createWork(check, context, sinks, position, budget, sink -> check.analyze(context, sink))));
+            }
+        }
+
+        if (!perClassChecks.isEmpty()) {
+            StringJoiner names = new StringJoiner(", ");
+            for (PerClassLintCheck check : perClassChecks) {
+                names.add(check.getName());
+            }
+            TaskBudget budget = createBudget(globalDeadline);
+            tasks.add(0, new CheckTask(perClassPositions, names.toString(), context.getClassCount(), budget, () -> {
+                List<ViolationSink> perClassSinks = new ArrayList<>();
+                for (int position : perClassPositions) {
+                    perClassSinks.add(limit(sinks.get(position), budget));
+                }
+                PerClassLintCheck.analyzeTogether(perClassChecks, context.getClasses(), resultCache, perClassSinks);
+            }));
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Work for a task running one check, measured when profiling. The sink is only looked up when the work runs.
+     */
+    private Runnable createWork(LintCheck check, Context context, List<ViolationSink> sinks, int position,
+                                TaskBudget budget, Consumer<ViolationSink> work) {
+        if (profile == null) {
+            return () -> work.accept(limit(sinks.get(position), budget));
         }
 
+        PipelineProfile.Stage stage = profile.getStage("Check: " + check.getName(), "classes", "violations");
+        return () -> {
+            ViolationSink sink = sinks.get(position);
+            long[] violations = new long[1];
+            PipelineProfile.Measurement measurement = stage.begin();
+            work.accept(limit(violation -> {
+                violations[0]++;
+                sink.accept(violation);
+            }, budget));
+            measurement.end();
+            stage.addCounts(context.getClassCount(), violations[0]);
+        };
+    }
+
+    private TaskBudget createBudget(long globalDeadline) {
+        return checkTimeoutNanos > 0 || globalDeadline != 0 ? new TaskBudget(checkTimeoutNanos, globalDeadline) : null;
+    }
+
+    private static ViolationSink limit(ViolationSink sink, TaskBudget budget) {
+        return budget != null ? budget.limit(sink) : sink;
+    }
+
+    private List<List<Violation>> createResultLists() {
+        List<List<Violation>> results = new ArrayList<>();
+        for (int i = 0; i < checks.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+        return results;
+    }
+
+    private List<ViolationSink> createListSinks(List<List<Violation>> results) {
+        List<ViolationSink> sinks = new ArrayList<>();
+        for (List<Violation> result : results) {
+            sinks.add(result::add);
+        }
+        return sinks;
+    }
+
+    private List<Violation> mergeResults(List<List<Violation>> results) {
+        List<Violation> allViolations = new ArrayList<>();
+        for (List<Violation> result : results) {
+            allViolations.addAll(result);
+        }
         return allViolations;
     }
-}
\ No newline at end of file
+
+    /**
+     * A unit of work for the executor, with the positions of the checks it runs.
+     * Each run is recorded as a CheckExecutionEvent when Flight Recorder is on.
+     */
+    private static class CheckTask implements Runnable {
+        private final List<Integer> positions;
+        private final String checkNames;
+        private final int classCount;
+        private final TaskBudget budget;
+        private final Runnable work;
+
+        CheckTask(List<Integer> positions, String checkNames, int classCount, TaskBudget budget, Runnable work) {
+            this.positions = positions;
+            this.checkNames = checkNames;
+            this.classCount = classCount;
+            this.budget = budget;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if (budget != null && !budget.start()) {
+                return;
+            }
+            CheckExecutionEvent event = new CheckExecutionEvent();
+            event.begin();
+            work.run();
+            if (event.shouldCommit()) {
+                event.checks = checkNames;
+                event.classCount = classCount;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Time limit of one check task: its own budget counted from when it starts, capped by the deadline of the whole run.
+     */
+    private static class TaskBudget {
+        // Until a queued task starts, the engine re-checks on it at least this often
+        private static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+        private final long checkTimeoutNanos;
+        private final long globalDeadline;
+        private volatile long deadline;
+        private volatile boolean started;
+        private volatile boolean stopped;
+        private volatile boolean abandoned;
+
+        TaskBudget(long checkTimeoutNanos, long globalDeadline) {
+            this.checkTimeoutNanos = checkTimeoutNanos;
+            this.globalDeadline = globalDeadline;
+        }
+
+        /**
+         * Starts the clock. Returns false if the task must not run at all, because it was abandoned
+         * or the run's deadline passed while it was queued.
+         */
+        synchronized boolean start() {
+            long now = System.nanoTime();
+            if (abandoned || (globalDeadline != 0 && now - globalDeadline >= 0)) {
+                abandoned = true;
+                return false;
+            }
+            long end = checkTimeoutNanos > 0 ? now + checkTimeoutNanos : globalDeadline;
+            if (globalDeadline != 0 && end - globalDeadline > 0) {
+                end = globalDeadline;
+            }
+            deadline = end;
+            started = true;
+            return true;
+        }
+
+        boolean isExpired() {
+            return abandoned || (started && System.nanoTime() - deadline >= 0);
+        }
+
+        /**
+         * How long the engine should wait for the task before looking again; 0 or less once it is out of time.
+         */
+        long getNanosToWait() {
+            long now = System.nanoTime();
+            if (started) {
+                return deadline - now;
+            }
+            return globalDeadline != 0 ? globalDeadline - now : Math.max(checkTimeoutNanos, MIN_WAIT_NANOS);
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+        }
+
+        boolean isIncomplete() {
+            return abandoned || stopped;
+        }
+
+        String getReason() {
+            if (!started) {
+                return "Skipped: the time budget of the run was used up before this check started";
+            }
+            return "Stopped when its time budget ran out; the results of this check are incomplete";
+        }
+
+        /**
+         * Wraps a sink so the check sees the budget through isCancelled(), and so nothing gets through once the task is abandoned.
+         */
+        ViolationSink limit(ViolationSink sink) {
+            return new ViolationSink() {
+                @Override
+                public void accept(Violation violation) {
+                    synchronized (TaskBudget.this) {
+                        if (!abandoned) {
+                            sink.accept(violation);
+                        }
+                    }
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    if (isExpired()) {
+                        stopped = true;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
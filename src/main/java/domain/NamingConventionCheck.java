@@ -95,6 +95,11 @@ public class NamingConventionCheck extends PerClassLintCheck {
         return "Validates that class, method, field, and variable names follow naming conventions";
     }
 
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.LOCAL_VARIABLES;
+    }
+
     // Helper methods
 
     private boolean beginsWithUppercase(String name) {
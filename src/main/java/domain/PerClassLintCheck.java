@@ -3,6 +3,7 @@ package domain;
 import domain.internal_representation.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,8 @@ import java.util.Optional;
  * Abstract base class implementing the Template Method pattern for checking each individual.
  * Provides a defined traversal algorithm over classes, fields, methods, and local variables.
  * Subclasses (specific checks) can override specific methods to implement their checking logic.
+ * Several per-class checks can share one traversal through analyzeTogether, which visits
+ * every class, field, method and local variable once and hands it to each check in turn.
  */
 public abstract class PerClassLintCheck implements LintCheck {
 
@@ -20,32 +23,144 @@ public abstract class PerClassLintCheck implements LintCheck {
     @Override
     public final List<Violation> analyze(Context context) {
         List<Violation> violations = new ArrayList<>();
+        analyze(context, violations::add);
+        return violations;
+    }
+
+    /**
+     * Streaming form of the template method: violations go to the sink as they are found.
+     */
+    @Override
+    public final void analyze(Context context, ViolationSink sink) {
+        analyzeTogether(Collections.singletonList(this), context.getClasses(), null, Collections.singletonList(sink));
+    }
+
+    /**
+     * Runs all the given checks in a single traversal of the given classes.
+     * Returns one list of violations per check, in the same order as the checks,
+     * each identical to what that check's analyze method would return on its own.
+     */
+    public static List<List<Violation>> analyzeTogether(List<PerClassLintCheck> checks, List<ClassInfo> classes, PerClassResultCache cache) {
+        List<List<Violation>> violations = new ArrayList<>();
+        List<ViolationSink> sinks = new ArrayList<>();
+        for (int i = 0; i < checks.size(); i++) {
+            List<Violation> checkViolations = new ArrayList<>();
+            violations.add(checkViolations);
+            sinks.add(checkViolations::add);
+        }
 
-        for (ClassInfo classInfo : context.getClasses()) {
-            // Check at class level
-            Optional<Violation> classViolation = checkClass(classInfo);
-            classViolation.ifPresent(violations::add);
+        analyzeTogether(checks, classes, cache, sinks);
+        return violations;
+    }
+
+    /**
+     * Runs all the given checks in a single traversal of the given classes,
+     * sending each check's violations to its own sink (sinks.get(i) for checks.get(i)).
+     * The same sink may be passed for several checks; it then receives violations class by class.
+     *
+     * When a cache is given, classes whose results are already cached for a check are not
+     * checked again by it, and newly computed per-class results are added to the cache.
+     * The traversal stops before the next class once any sink is cancelled.
+     */
+    public static void analyzeTogether(List<PerClassLintCheck> checks, List<ClassInfo> classes, PerClassResultCache cache, List<ViolationSink> sinks) {
+        int checkCount = checks.size();
+        PerClassLintCheck[] checkArray = checks.toArray(new PerClassLintCheck[0]);
+
+        // Checks that still have to look at the current class, and where their results go
+        PerClassLintCheck[] pending = new PerClassLintCheck[checkCount];
+        ViolationSink[] pendingSinks = new ViolationSink[checkCount];
+        List<List<Violation>> pendingResults = new ArrayList<>();
 
-            // Check all fields
-            for (FieldInfo field : classInfo.getFields()) {
-                Optional<Violation> fieldViolation = checkField(field);
-                fieldViolation.ifPresent(violations::add);
+        for (ClassInfo classInfo : classes) {
+            if (isAnyCancelled(sinks)) {
+                return;
+            }
+            int pendingCount = 0;
+            pendingResults.clear();
+            for (int i = 0; i < checkCount; i++) {
+                List<Violation> cached = cache != null ? cache.getViolations(classInfo, checkArray[i]) : null;
+                if (cached != null) {
+                    cached.forEach(sinks.get(i)::accept);
+                } else if (cache != null) {
+                    // Collect this class's results so they can be cached before being passed on
+                    List<Violation> classResults = new ArrayList<>();
+                    pendingResults.add(classResults);
+                    pending[pendingCount] = checkArray[i];
+                    pendingSinks[pendingCount++] = classResults::add;
+                } else {
+                    pending[pendingCount] = checkArray[i];
+                    pendingSinks[pendingCount++] = sinks.get(i);
+                }
             }
 
-            // Check all methods
-            for (MethodInfo method : classInfo.getMethods()) {
-                Optional<Violation> methodViolation = checkMethod(method);
-                methodViolation.ifPresent(violations::add);
+            if (pendingCount == 0) {
+                continue;
+            }
 
-                // Check all local variables in the method
-                for (LocalVariableInfo variable : method.getLocalVariables()) {
-                    Optional<Violation> varViolation = checkLocalVariable(variable, method);
-                    varViolation.ifPresent(violations::add);
+            checkClassTree(classInfo, pending, pendingSinks, pendingCount);
+
+            if (cache != null) {
+                for (int p = 0, i = 0; i < checkCount; i++) {
+                    if (p < pendingCount && pending[p] == checkArray[i]) {
+                        cache.putViolations(classInfo, checkArray[i], pendingResults.get(p));
+                        pendingResults.get(p).forEach(sinks.get(i)::accept);
+                        p++;
+                    }
                 }
             }
         }
+    }
 
-        return violations;
+    private static boolean isAnyCancelled(List<ViolationSink> sinks) {
+        for (ViolationSink sink : sinks) {
+            if (sink.isCancelled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits one class, its fields, methods and local variables, passing each element to every check.
+     * Violations that do not name their class's qualified name get the one of the visited class.
+     */
+    private static void checkClassTree(ClassInfo classInfo, PerClassLintCheck[] checks, ViolationSink[] sinks, int checkCount) {
+        // Check at class level
+        for (int i = 0; i < checkCount; i++) {
+            report(checks[i].checkClass(classInfo), sinks[i], classInfo);
+        }
+
+        // Check all fields
+        for (FieldInfo field : classInfo.getFields()) {
+            for (int i = 0; i < checkCount; i++) {
+                report(checks[i].checkField(field), sinks[i], classInfo);
+            }
+        }
+
+        // Check all methods
+        for (MethodInfo method : classInfo.getMethods()) {
+            for (int i = 0; i < checkCount; i++) {
+                report(checks[i].checkMethod(method), sinks[i], classInfo);
+            }
+
+            // Check all local variables in the method
+            for (LocalVariableInfo variable : method.getLocalVariables()) {
+                for (int i = 0; i < checkCount; i++) {
+                    report(checks[i].checkLocalVariable(variable, method), sinks[i], classInfo);
+                }
+            }
+        }
+    }
+
+    private static void report(Optional<Violation> found, ViolationSink sink, ClassInfo classInfo) {
+        if (!found.isPresent()) {
+            return;
+        }
+        Violation violation = found.get();
+        if (violation.getQualifiedName() == null) {
+            violation = new Violation(violation.getCheckName(), violation.getClassName(), violation.getMessage(), classInfo.getQualifiedName());
+        }
+        sink.accept(violation);
     }
 
     /**
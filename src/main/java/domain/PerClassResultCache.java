@@ -0,0 +1,19 @@
+package domain;
+
+import domain.internal_representation.ClassInfo;
+
+import java.util.List;
+
+/**
+ * Stores the violations a PerClassLintCheck found in one class, so unchanged classes
+ * don't have to be checked again on the next run.
+ */
+public interface PerClassResultCache {
+
+    /**
+     * Returns the violations previously recorded for this class and check, or null if there are none.
+     */
+    List<Violation> getViolations(ClassInfo classInfo, PerClassLintCheck check);
+
+    void putViolations(ClassInfo classInfo, PerClassLintCheck check, List<Violation> violations);
+}
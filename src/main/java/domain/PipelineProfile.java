@@ -0,0 +1,177 @@
+package domain;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects wall time, CPU time and allocated bytes for each stage of a lint run (loading, conversion,
+ * dependency graph, every check), together with how many items and elements each stage processed.
+ *
+ * CPU time and allocations are measured per thread through ThreadMXBean, so work done on thread pools
+ * is attributed by measuring inside the worker tasks: begin() is used by the thread that runs a stage
+ * and counts its wall time, beginWork() by helper threads, whose CPU time and allocations are added
+ * to the stage without adding to its wall time. Stages are safe to update from several threads.
+ */
+public class PipelineProfile {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = THREADS instanceof com.sun.management.ThreadMXBean
+            ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    public PipelineProfile() {
+        if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        if (ALLOCATIONS != null && ALLOCATIONS.isThreadAllocatedMemorySupported() && !ALLOCATIONS.isThreadAllocatedMemoryEnabled()) {
+            ALLOCATIONS.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * The stage with this name, created on first use. itemUnit and elementUnit describe what its counts mean
+     * (e.g. "files" and "bytes") and are only taken from the first call.
+     */
+    public synchronized Stage getStage(String name, String itemUnit, String elementUnit) {
+        return stages.computeIfAbsent(name, key -> new Stage(key, itemUnit, elementUnit));
+    }
+
+    /**
+     * All stages, in the order they were first used.
+     */
+    public synchronized List<Stage> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * Whether CPU time and allocated bytes can be measured on this JVM; if not they are reported as -1.
+     */
+    public static boolean isCpuTimeSupported() {
+        return THREADS.isCurrentThreadCpuTimeSupported();
+    }
+
+    public static boolean isAllocationSupported() {
+        return ALLOCATIONS != null && ALLOCATIONS.isThreadAllocatedMemorySupported();
+    }
+
+    private static long currentCpuNanos() {
+        return isCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long currentAllocatedBytes() {
+        return isAllocationSupported() ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Totals for one stage of the run.
+     */
+    public static class Stage {
+        private final String name;
+        private final String itemUnit;
+        private final String elementUnit;
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+
+        private Stage(String name, String itemUnit, String elementUnit) {
+            this.name = name;
+            this.itemUnit = itemUnit;
+            this.elementUnit = elementUnit;
+        }
+
+        /**
+         * Starts measuring on the thread that runs this stage; the elapsed time counts as wall time.
+         */
+        public Measurement begin() {
+            return new Measurement(this, true);
+        }
+
+        /**
+         * Starts measuring work done for this stage on a helper thread, e.g. one task of a thread pool.
+         */
+        public Measurement beginWork() {
+            return new Measurement(this, false);
+        }
+
+        public void addCounts(long itemCount, long elementCount) {
+            items.add(itemCount);
+            elements.add(elementCount);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getItemUnit() {
+            return itemUnit;
+        }
+
+        public String getElementUnit() {
+            return elementUnit;
+        }
+
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        public long getCpuNanos() {
+            return isCpuTimeSupported() ? cpuNanos.sum() : -1;
+        }
+
+        public long getAllocatedBytes() {
+            return isAllocationSupported() ? allocatedBytes.sum() : -1;
+        }
+
+        public long getItems() {
+            return items.sum();
+        }
+
+        public long getElements() {
+            return elements.sum();
+        }
+
+        /**
+         * Items processed per second of wall time, or 0 if no wall time was recorded.
+         */
+        public double getItemsPerSecond() {
+            long wall = getWallNanos();
+            return wall > 0 ? getItems() * 1e9 / wall : 0;
+        }
+    }
+
+    /**
+     * One measurement in progress on the current thread; end() it on the same thread.
+     */
+    public static class Measurement {
+        private final Stage stage;
+        private final boolean countsWallTime;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startAllocatedBytes;
+
+        private Measurement(Stage stage, boolean countsWallTime) {
+            this.stage = stage;
+            this.countsWallTime = countsWallTime;
+            this.startAllocatedBytes = currentAllocatedBytes();
+            this.startCpuNanos = currentCpuNanos();
+            this.startNanos = System.nanoTime();
+        }
+
+        public void end() {
+            long elapsed = System.nanoTime() - startNanos;
+            stage.cpuNanos.add(currentCpuNanos() - startCpuNanos);
+            stage.allocatedBytes.add(currentAllocatedBytes() - startAllocatedBytes);
+            if (countsWallTime) {
+                stage.wallNanos.add(elapsed);
+            }
+        }
+    }
+}
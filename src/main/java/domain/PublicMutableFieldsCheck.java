@@ -1,5 +1,6 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.FieldInfo;
 import java.util.Optional;
 
@@ -27,4 +28,9 @@ public class PublicMutableFieldsCheck extends PerClassLintCheck {
     public String getDescription() {
         return "Detects public fields that are not final (mutable)";
     }
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.MEMBERS;
+    }
 }
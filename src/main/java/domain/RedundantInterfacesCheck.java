@@ -1,7 +1,9 @@
 package domain;
 
+import domain.internal_representation.AnalysisDepth;
 import domain.internal_representation.Context;
 import domain.internal_representation.ClassInfo;
+import domain.internal_representation.DependencyInfo;
 
 import java.util.*;
 
@@ -14,42 +16,47 @@ public class RedundantInterfacesCheck implements LintCheck {
 
     @Override
     public List<Violation> analyze(Context context) {
-            List<Violation> violations = new ArrayList<>();
+        List<Violation> violations = new ArrayList<>();
+        analyze(context, violations::add);
+        return violations;
+    }
 
-            // Build a map of all classes for lookup
-            Map<String, ClassInfo> classMap = new HashMap<>();
-            for (ClassInfo classInfo : context.getClasses()) {
-                classMap.put(classInfo.getName(), classInfo);
-            }
+    @Override
+    public void analyze(Context context, ViolationSink sink) {
+            // Superclasses are found by name id through the graph, whose class i is context.getClasses().get(i)
+            DependencyInfo dependencyInfo = context.getDependencyInfo();
+            List<ClassInfo> classes = context.getClasses();
 
             // Check each class for redundant interfaces
-            for (ClassInfo classInfo : context.getClasses()) {
-                Set<String> parentInterfaces = collectParentInterfaces(classInfo, classMap);
+            for (ClassInfo classInfo : classes) {
+                if (sink.isCancelled()) {
+                    return;
+                }
+                Set<Integer> parentInterfaces = collectParentInterfaces(classInfo, classes, dependencyInfo);
 
                 // Check if any of the class's declared interfaces are already in parent
-                for (String declaredInterface : classInfo.getInterfaces()) {
-                    if (parentInterfaces.contains(declaredInterface)) {
+                for (int i = 0; i < classInfo.getInterfaceCount(); i++) {
+                    if (parentInterfaces.contains(classInfo.getInterfaceId(i))) {
+                        String declaredInterface = classInfo.getInterfaces().get(i);
                         String message = "Interface '" + declaredInterface + "' is redundant (already implemented by superclass)";
-                        violations.add(new Violation(getName(), classInfo.getName(), message));
+                        sink.accept(new Violation(getName(), classInfo.getName(), message, classInfo.getQualifiedName()));
                     }
                 }
             }
-
-            return violations;
     }
 
-    private Set<String> collectParentInterfaces(ClassInfo classInfo, Map<String, ClassInfo> classMap) {
-        Set<String> interfaces = new HashSet<>();
-        String superClassName = classInfo.getSuperClass();
+    private Set<Integer> collectParentInterfaces(ClassInfo classInfo, List<ClassInfo> classes, DependencyInfo dependencyInfo) {
+        Set<Integer> interfaces = new HashSet<>();
+        Set<Integer> visited = new HashSet<>();
+        int superClassIndex = dependencyInfo.getClassIndexOfSymbol(classInfo.getSuperClassId());
 
-        while (superClassName != null && !superClassName.equals("java.lang.Object")) {
-            ClassInfo superClass = classMap.get(superClassName);
-            if (superClass == null) {
-                break;
+        // visited stops the walk if malformed input makes the hierarchy loop
+        while (superClassIndex != -1 && visited.add(superClassIndex)) {
+            ClassInfo superClass = classes.get(superClassIndex);
+            for (int i = 0; i < superClass.getInterfaceCount(); i++) {
+                interfaces.add(superClass.getInterfaceId(i));
             }
-
-            interfaces.addAll(superClass.getInterfaces());
-            superClassName = superClass.getSuperClass();
+            superClassIndex = dependencyInfo.getClassIndexOfSymbol(superClass.getSuperClassId());
         }
         return interfaces;
     }
@@ -63,4 +70,9 @@ public class RedundantInterfacesCheck implements LintCheck {
     public String getDescription() {
         return "Detects interfaces that are redundantly declared because they are already implemented parent or any ancestor class";
     }
+
+    @Override
+    public AnalysisDepth getRequiredDepth() {
+        return AnalysisDepth.HEADER;
+    }
 }
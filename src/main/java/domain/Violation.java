@@ -4,11 +4,21 @@ public class Violation {
     final String checkName;
     final String className;
     final String message;
+    final String qualifiedName;
 
     public Violation(String checkName, String className, String message) {
+        this(checkName, className, message, null);
+    }
+
+    /**
+     * A violation in the class with the given fully qualified name, e.g. "com.example.Order",
+     * which tells apart classes that share the simple className.
+     */
+    public Violation(String checkName, String className, String message, String qualifiedName) {
         this.checkName = checkName;
         this.className = className;
         this.message = message;
+        this.qualifiedName = qualifiedName;
     }
 
     public String getCheckName() {
@@ -23,6 +33,14 @@ public class Violation {
         return message;
     }
 
+    /**
+     * The fully qualified name of the class the violation is in, or null if it is not about one class,
+     * like the marker of a check that ran out of time.
+     */
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
     public String toString() {
         return checkName + " violated in " + className + ": " + message;
     }
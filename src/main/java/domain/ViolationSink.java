@@ -0,0 +1,19 @@
+package domain;
+
+/**
+ * Receives violations one at a time, as soon as a check finds them.
+ * Lets results be rendered or written out while the analysis is still running,
+ * instead of collecting every violation in memory first.
+ */
+public interface ViolationSink {
+
+    void accept(Violation violation);
+
+    /**
+     * Whether the run no longer wants results, e.g. because the check's time budget has run out.
+     * Long-running checks should ask now and then and return early, keeping what they already reported.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
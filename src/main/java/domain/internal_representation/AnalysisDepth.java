@@ -0,0 +1,21 @@
+package domain.internal_representation;
+
+/**
+ * How much of each class a lint check needs in the internal representation.
+ * Levels are ordered: each one includes everything from the levels before it,
+ * so the converter only has to parse as deep as the most demanding selected check.
+ */
+public enum AnalysisDepth {
+    // Name, superclass, interfaces and class modifiers
+    HEADER,
+    // Field and method signatures and modifiers
+    MEMBERS,
+    // Local variables and parameters of each method (needs debug info from method bodies)
+    LOCAL_VARIABLES,
+    // Full method bodies including instructions and stack map frames
+    INSTRUCTIONS;
+
+    public AnalysisDepth max(AnalysisDepth other) {
+        return other.compareTo(this) > 0 ? other : this;
+    }
+}
@@ -0,0 +1,24 @@
+package domain.internal_representation;
+
+/**
+ * Where the raw bytecode of one class can be fetched from, e.g. its class file, an archive entry or a slice
+ * of a snapshot. A Context keeps these small handles instead of the bytes, so bytecode only takes heap
+ * space while a check is using it.
+ */
+public interface BytecodeSource {
+
+    /**
+     * Reads the bytecode. Every call reads it again, so callers that need it repeatedly should keep the result.
+     *
+     * @throws java.io.UncheckedIOException if the bytecode can no longer be read, e.g. the file was deleted,
+     *         or if it no longer matches what was loaded
+     */
+    byte[] read();
+
+    /**
+     * A source over bytes that are already in memory.
+     */
+    static BytecodeSource of(byte[] bytes) {
+        return bytes::clone;
+    }
+}
@@ -1,38 +1,91 @@
 package domain.internal_representation;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents the internal representation of a Java class.
  * Contains all info about the class structure.
+ * Immutable once built, so it can be shared freely between threads running checks.
  */
 public class ClassInfo {
     private final String name;
+    private final int nameId;
+    private final String packageName;
     private final List<FieldInfo> fields;
     private final List<MethodInfo> methods;
     private final List<String> interfaces;
+    private final int[] interfaceIds;
     private final String superClass;
+    private final int superClassId;
     private final boolean isPublic;
     private final boolean isInterface;
     private final boolean isAbstract;
     private final boolean isEnum;
 
-    public ClassInfo(String name, List<FieldInfo> fields, List<MethodInfo> methods, List<String> interfaces, String superClass, boolean isPublic , boolean isInterface, boolean isAbstract, boolean isEnum) {
+    public ClassInfo(String name, int nameId, String packageName, List<FieldInfo> fields, List<MethodInfo> methods, List<String> interfaces, int[] interfaceIds, String superClass, int superClassId, boolean isPublic , boolean isInterface, boolean isAbstract, boolean isEnum) {
         this.name = name;
-        this.fields = fields;
-        this.methods = methods;
-        this.interfaces = interfaces;
+        this.nameId = nameId;
+        this.packageName = packageName;
+        this.fields = Collections.unmodifiableList(fields);
+        this.methods = Collections.unmodifiableList(methods);
+        this.interfaces = Collections.unmodifiableList(interfaces);
+        this.interfaceIds = interfaceIds.clone();
         this.superClass = superClass;
+        this.superClassId = superClassId;
         this.isPublic = isPublic;
         this.isInterface = isInterface;
         this.isAbstract = isAbstract;
         this.isEnum = isEnum;
     }
 
+    /**
+     * For views that compute every getter from another storage layout instead of these fields.
+     */
+    protected ClassInfo() {
+        this.name = null;
+        this.nameId = -1;
+        this.packageName = null;
+        this.fields = null;
+        this.methods = null;
+        this.interfaces = null;
+        this.interfaceIds = null;
+        this.superClass = null;
+        this.superClassId = -1;
+        this.isPublic = false;
+        this.isInterface = false;
+        this.isAbstract = false;
+        this.isEnum = false;
+    }
+
+    /**
+     * The simple name of the class, e.g. "Order"; several analyzed classes can share it.
+     */
     public String getName() {
         return name;
     }
 
+    /**
+     * The fully qualified name, e.g. "com.example.Order", which identifies the class.
+     */
+    public String getQualifiedName() {
+        return getPackageName().isEmpty() ? getName() : getPackageName() + "." + getName();
+    }
+
+    /**
+     * The SymbolTable id of the fully qualified class name.
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * Dotted package name, or an empty string for the default package.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
     public List<FieldInfo> getFields() {
         return fields;
     }
@@ -45,10 +98,28 @@ public class ClassInfo {
         return interfaces;
     }
 
+    public int getInterfaceCount() {
+        return interfaceIds.length;
+    }
+
+    /**
+     * The SymbolTable id of the i-th interface name.
+     */
+    public int getInterfaceId(int i) {
+        return interfaceIds[i];
+    }
+
     public String getSuperClass() {
         return superClass;
     }
 
+    /**
+     * The SymbolTable id of the superclass name, or -1 if there is no superclass.
+     */
+    public int getSuperClassId() {
+        return superClassId;
+    }
+
     public boolean isPublic() {
         return isPublic;
     }
@@ -64,11 +135,11 @@ public class ClassInfo {
     }
 
     public boolean isConcrete() {
-        return !isInterface && !isAbstract && !isEnum;
+        return !isInterface() && !isAbstract() && !isEnum();
     }
 
     public boolean hasMethod(String name) {
-        return methods.stream().anyMatch(method -> method.getName().equals(name));
+        return getMethods().stream().anyMatch(method -> method.getName().equals(name));
     }
 
 }
@@ -0,0 +1,558 @@
+package domain.internal_representation;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, column-oriented storage for a whole set of classes.
+ *
+ * Instead of one object per class, field, method and local variable, every attribute is kept in a
+ * primitive array indexed by element number, and names are SymbolTable ids. Types refer to the shared
+ * type table; package, field, method and local variable names go into a table of the model's own, so
+ * they take no ids in the type space the dependency graph is sized by. The fields, methods and
+ * interfaces of a class, and the parameters and local variables of a method, are contiguous ranges
+ * of the shared arrays, described by start offsets.
+ *
+ * Checks keep using the ClassInfo/MethodInfo/... getters: getClasses() returns one small view per class,
+ * and member views are created on the fly while iterating, holding nothing but an index into the columns.
+ * A model can be filled one class at a time while the classes are converted, so the object tree of
+ * a whole codebase never has to exist at once. Like the object model, it is not changed once built
+ * and can then be read from any number of threads.
+ */
+public class ColumnarModel {
+
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+
+    // Flag bits; member flags keep the visibility ordinal in the two low bits
+    private static final int CLASS_PUBLIC = 1;
+    private static final int CLASS_INTERFACE = 2;
+    private static final int CLASS_ABSTRACT = 4;
+    private static final int CLASS_ENUM = 8;
+    private static final int VISIBILITY_MASK = 3;
+    private static final int MEMBER_STATIC = 4;
+    private static final int MEMBER_FINAL = 8;
+    private static final int MEMBER_ABSTRACT = 16;
+
+    private final SymbolTable symbols;
+    // Identifiers that are not types; never handed to the dependency graph
+    private final SymbolTable names = new SymbolTable();
+
+    // Classes; the members of class c are [xStart[c], xStart[c + 1]).
+    // The columns grow as classes are added and are cut to size by trimToSize()
+    private int classCount;
+    private int[] classNameIds;
+    private int[] packageIds;
+    private int[] superClassIds;
+    private byte[] classFlags;
+    private int[] interfaceStart;
+    private int[] fieldStart;
+    private int[] methodStart;
+
+    private int interfaceCount;
+    private int[] interfaceIds;
+
+    private int fieldCount;
+    private int[] fieldNameIds;
+    private int[] fieldTypeIds;
+    private byte[] fieldFlags;
+
+    // Methods; the parameters and locals of method m are [xStart[m], xStart[m + 1])
+    private int methodCount;
+    private int[] methodNameIds;
+    private int[] returnTypeIds;
+    private byte[] methodFlags;
+    private int[] parameterStart;
+    private int[] localStart;
+
+    private int parameterCount;
+    private int[] parameterTypeIds;
+
+    private int localCount;
+    private int[] localNameIds;
+    private int[] localTypeIds;
+
+    private ClassInfo[] classViews;
+
+    /**
+     * Copies the given classes into columns. symbols must be the table the classes' type ids refer to;
+     * it is only read, never added to.
+     */
+    public ColumnarModel(List<ClassInfo> classes, SymbolTable symbols) {
+        this(symbols, classes.size());
+        for (ClassInfo classInfo : classes) {
+            add(classInfo);
+        }
+        trimToSize();
+    }
+
+    /**
+     * An empty model, filled one class at a time with add(), so that a large codebase never has to exist
+     * as a complete object tree. expectedClasses only sizes the columns up front.
+     */
+    public ColumnarModel(SymbolTable symbols, int expectedClasses) {
+        this.symbols = symbols;
+        int capacity = Math.max(1, expectedClasses);
+        // Room for a few members per class; the columns grow if a codebase has more
+        int members = capacity * 4;
+
+        classNameIds = new int[capacity];
+        packageIds = new int[capacity];
+        superClassIds = new int[capacity];
+        classFlags = new byte[capacity];
+        interfaceStart = new int[capacity + 1];
+        fieldStart = new int[capacity + 1];
+        methodStart = new int[capacity + 1];
+        interfaceIds = new int[capacity];
+        fieldNameIds = new int[members];
+        fieldTypeIds = new int[members];
+        fieldFlags = new byte[members];
+        methodNameIds = new int[members];
+        returnTypeIds = new int[members];
+        methodFlags = new byte[members];
+        parameterStart = new int[members + 1];
+        localStart = new int[members + 1];
+        parameterTypeIds = new int[members];
+        localNameIds = new int[members];
+        localTypeIds = new int[members];
+        classViews = new ClassInfo[capacity];
+    }
+
+    /**
+     * Copies one class into the columns and returns its view; the class itself is not kept.
+     * Adding is not thread-safe: share the model with other threads only after the last class was added.
+     */
+    public ClassInfo add(ClassInfo classInfo) {
+        int c = classCount;
+        int classInterfaceCount = classInfo.getInterfaceCount();
+        List<FieldInfo> fields = classInfo.getFields();
+        List<MethodInfo> methods = classInfo.getMethods();
+
+        if (c == classNameIds.length) {
+            int capacity = grownCapacity(c, c + 1);
+            classNameIds = Arrays.copyOf(classNameIds, capacity);
+            packageIds = Arrays.copyOf(packageIds, capacity);
+            superClassIds = Arrays.copyOf(superClassIds, capacity);
+            classFlags = Arrays.copyOf(classFlags, capacity);
+            interfaceStart = Arrays.copyOf(interfaceStart, capacity + 1);
+            fieldStart = Arrays.copyOf(fieldStart, capacity + 1);
+            methodStart = Arrays.copyOf(methodStart, capacity + 1);
+            classViews = Arrays.copyOf(classViews, capacity);
+        }
+        if (interfaceCount + classInterfaceCount > interfaceIds.length) {
+            interfaceIds = Arrays.copyOf(interfaceIds, grownCapacity(interfaceIds.length, interfaceCount + classInterfaceCount));
+        }
+        if (fieldCount + fields.size() > fieldNameIds.length) {
+            int capacity = grownCapacity(fieldNameIds.length, fieldCount + fields.size());
+            fieldNameIds = Arrays.copyOf(fieldNameIds, capacity);
+            fieldTypeIds = Arrays.copyOf(fieldTypeIds, capacity);
+            fieldFlags = Arrays.copyOf(fieldFlags, capacity);
+        }
+        if (methodCount + methods.size() > methodNameIds.length) {
+            int capacity = grownCapacity(methodNameIds.length, methodCount + methods.size());
+            methodNameIds = Arrays.copyOf(methodNameIds, capacity);
+            returnTypeIds = Arrays.copyOf(returnTypeIds, capacity);
+            methodFlags = Arrays.copyOf(methodFlags, capacity);
+            parameterStart = Arrays.copyOf(parameterStart, capacity + 1);
+            localStart = Arrays.copyOf(localStart, capacity + 1);
+        }
+
+        classNameIds[c] = classInfo.getNameId();
+        packageIds[c] = names.intern(classInfo.getPackageName());
+        superClassIds[c] = classInfo.getSuperClassId();
+        classFlags[c] = (byte) ((classInfo.isPublic() ? CLASS_PUBLIC : 0)
+                | (classInfo.isInterface() ? CLASS_INTERFACE : 0)
+                | (classInfo.isAbstract() ? CLASS_ABSTRACT : 0)
+                | (classInfo.isEnum() ? CLASS_ENUM : 0));
+
+        interfaceStart[c] = interfaceCount;
+        for (int k = 0; k < classInterfaceCount; k++) {
+            interfaceIds[interfaceCount++] = classInfo.getInterfaceId(k);
+        }
+
+        fieldStart[c] = fieldCount;
+        for (FieldInfo field : fields) {
+            fieldNameIds[fieldCount] = names.intern(field.getName());
+            fieldTypeIds[fieldCount] = field.getTypeId();
+            fieldFlags[fieldCount++] = (byte) (field.getVisibility().ordinal()
+                    | (field.isStatic() ? MEMBER_STATIC : 0)
+                    | (field.isFinal() ? MEMBER_FINAL : 0));
+        }
+
+        methodStart[c] = methodCount;
+        for (MethodInfo method : methods) {
+            addMethod(method);
+        }
+
+        // The end of this class's ranges, until the next class starts there
+        interfaceStart[c + 1] = interfaceCount;
+        fieldStart[c + 1] = fieldCount;
+        methodStart[c + 1] = methodCount;
+
+        classViews[c] = new ClassView(c);
+        classCount++;
+        return classViews[c];
+    }
+
+    private void addMethod(MethodInfo method) {
+        int m = methodCount;
+        int methodParameterCount = method.getParameterCount();
+        List<LocalVariableInfo> locals = method.getLocalVariables();
+
+        if (parameterCount + methodParameterCount > parameterTypeIds.length) {
+            parameterTypeIds = Arrays.copyOf(parameterTypeIds, grownCapacity(parameterTypeIds.length, parameterCount + methodParameterCount));
+        }
+        if (localCount + locals.size() > localNameIds.length) {
+            int capacity = grownCapacity(localNameIds.length, localCount + locals.size());
+            localNameIds = Arrays.copyOf(localNameIds, capacity);
+            localTypeIds = Arrays.copyOf(localTypeIds, capacity);
+        }
+
+        methodNameIds[m] = names.intern(method.getName());
+        returnTypeIds[m] = method.getReturnTypeId();
+        methodFlags[m] = (byte) (method.getVisibility().ordinal()
+                | (method.isStatic() ? MEMBER_STATIC : 0)
+                | (method.isAbstract() ? MEMBER_ABSTRACT : 0));
+
+        parameterStart[m] = parameterCount;
+        for (int k = 0; k < methodParameterCount; k++) {
+            parameterTypeIds[parameterCount++] = method.getParameterTypeId(k);
+        }
+
+        localStart[m] = localCount;
+        for (LocalVariableInfo variable : locals) {
+            localNameIds[localCount] = names.intern(variable.getName());
+            localTypeIds[localCount++] = variable.getTypeId();
+        }
+
+        parameterStart[m + 1] = parameterCount;
+        localStart[m + 1] = localCount;
+        methodCount++;
+    }
+
+    private static int grownCapacity(int length, int needed) {
+        return Math.max(needed, length + (length >> 1) + 16);
+    }
+
+    /**
+     * Cuts every column down to what the added classes use, so no spare capacity is retained.
+     */
+    public void trimToSize() {
+        classNameIds = Arrays.copyOf(classNameIds, classCount);
+        packageIds = Arrays.copyOf(packageIds, classCount);
+        superClassIds = Arrays.copyOf(superClassIds, classCount);
+        classFlags = Arrays.copyOf(classFlags, classCount);
+        interfaceStart = Arrays.copyOf(interfaceStart, classCount + 1);
+        fieldStart = Arrays.copyOf(fieldStart, classCount + 1);
+        methodStart = Arrays.copyOf(methodStart, classCount + 1);
+        classViews = Arrays.copyOf(classViews, classCount);
+        interfaceIds = Arrays.copyOf(interfaceIds, interfaceCount);
+        fieldNameIds = Arrays.copyOf(fieldNameIds, fieldCount);
+        fieldTypeIds = Arrays.copyOf(fieldTypeIds, fieldCount);
+        fieldFlags = Arrays.copyOf(fieldFlags, fieldCount);
+        methodNameIds = Arrays.copyOf(methodNameIds, methodCount);
+        returnTypeIds = Arrays.copyOf(returnTypeIds, methodCount);
+        methodFlags = Arrays.copyOf(methodFlags, methodCount);
+        parameterStart = Arrays.copyOf(parameterStart, methodCount + 1);
+        localStart = Arrays.copyOf(localStart, methodCount + 1);
+        parameterTypeIds = Arrays.copyOf(parameterTypeIds, parameterCount);
+        localNameIds = Arrays.copyOf(localNameIds, localCount);
+        localTypeIds = Arrays.copyOf(localTypeIds, localCount);
+    }
+
+    /**
+     * One view per class, in the order the classes were added. The views stay the same objects for the
+     * lifetime of the model, so they can be used as identity keys.
+     */
+    public List<ClassInfo> getClasses() {
+        return Collections.unmodifiableList(Arrays.asList(classViews).subList(0, classCount));
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    private String name(int id) {
+        return id >= 0 ? symbols.getSimpleName(id) : null;
+    }
+
+    /**
+     * A list of names over a range of an id column, without copying anything.
+     */
+    private class NameList extends AbstractList<String> {
+        private final int[] ids;
+        private final int from;
+        private final int to;
+
+        NameList(int[] ids, int from, int to) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            return symbols.getSimpleName(ids[from + checkIndex(index, to - from)]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private class ClassView extends ClassInfo {
+        private final int index;
+
+        ClassView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return symbols.getSimpleName(classNameIds[index]);
+        }
+
+        @Override
+        public int getNameId() {
+            return classNameIds[index];
+        }
+
+        @Override
+        public String getPackageName() {
+            return names.getName(packageIds[index]);
+        }
+
+        @Override
+        public List<FieldInfo> getFields() {
+            int from = fieldStart[index];
+            int to = fieldStart[index + 1];
+            return new AbstractList<FieldInfo>() {
+                @Override
+                public FieldInfo get(int k) {
+                    return new FieldView(index, from + checkIndex(k, to - from));
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+
+        @Override
+        public List<MethodInfo> getMethods() {
+            int from = methodStart[index];
+            int to = methodStart[index + 1];
+            return new AbstractList<MethodInfo>() {
+                @Override
+                public MethodInfo get(int k) {
+                    return new MethodView(index, from + checkIndex(k, to - from));
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+
+        @Override
+        public List<String> getInterfaces() {
+            return new NameList(interfaceIds, interfaceStart[index], interfaceStart[index + 1]);
+        }
+
+        @Override
+        public int getInterfaceCount() {
+            return interfaceStart[index + 1] - interfaceStart[index];
+        }
+
+        @Override
+        public int getInterfaceId(int i) {
+            return interfaceIds[interfaceStart[index] + checkIndex(i, getInterfaceCount())];
+        }
+
+        @Override
+        public String getSuperClass() {
+            return name(superClassIds[index]);
+        }
+
+        @Override
+        public int getSuperClassId() {
+            return superClassIds[index];
+        }
+
+        @Override
+        public boolean isPublic() {
+            return (classFlags[index] & CLASS_PUBLIC) != 0;
+        }
+
+        @Override
+        public boolean isInterface() {
+            return (classFlags[index] & CLASS_INTERFACE) != 0;
+        }
+
+        @Override
+        public boolean isAbstract() {
+            return (classFlags[index] & CLASS_ABSTRACT) != 0;
+        }
+
+        @Override
+        public boolean isEnum() {
+            return (classFlags[index] & CLASS_ENUM) != 0;
+        }
+    }
+
+    private class FieldView extends FieldInfo {
+        private final int classIndex;
+        private final int index;
+
+        FieldView(int classIndex, int index) {
+            this.classIndex = classIndex;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return names.getName(fieldNameIds[index]);
+        }
+
+        @Override
+        public String getClassName() {
+            return symbols.getSimpleName(classNameIds[classIndex]);
+        }
+
+        @Override
+        public String getType() {
+            return symbols.getSimpleName(fieldTypeIds[index]);
+        }
+
+        @Override
+        public int getTypeId() {
+            return fieldTypeIds[index];
+        }
+
+        @Override
+        public Visibility getVisibility() {
+            return VISIBILITIES[fieldFlags[index] & VISIBILITY_MASK];
+        }
+
+        @Override
+        public boolean isStatic() {
+            return (fieldFlags[index] & MEMBER_STATIC) != 0;
+        }
+
+        @Override
+        public boolean isFinal() {
+            return (fieldFlags[index] & MEMBER_FINAL) != 0;
+        }
+    }
+
+    private class MethodView extends MethodInfo {
+        private final int classIndex;
+        private final int index;
+
+        MethodView(int classIndex, int index) {
+            this.classIndex = classIndex;
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return names.getName(methodNameIds[index]);
+        }
+
+        @Override
+        public String getClassName() {
+            return symbols.getSimpleName(classNameIds[classIndex]);
+        }
+
+        @Override
+        public String getReturnType() {
+            return symbols.getSimpleName(returnTypeIds[index]);
+        }
+
+        @Override
+        public int getReturnTypeId() {
+            return returnTypeIds[index];
+        }
+
+        @Override
+        public List<String> getParameterTypes() {
+            return new NameList(parameterTypeIds, parameterStart[index], parameterStart[index + 1]);
+        }
+
+        @Override
+        public int getParameterCount() {
+            return parameterStart[index + 1] - parameterStart[index];
+        }
+
+        @Override
+        public int getParameterTypeId(int i) {
+            return parameterTypeIds[parameterStart[index] + checkIndex(i, getParameterCount())];
+        }
+
+        @Override
+        public Visibility getVisibility() {
+            return VISIBILITIES[methodFlags[index] & VISIBILITY_MASK];
+        }
+
+        @Override
+        public boolean isStatic() {
+            return (methodFlags[index] & MEMBER_STATIC) != 0;
+        }
+
+        @Override
+        public boolean isAbstract() {
+            return (methodFlags[index] & MEMBER_ABSTRACT) != 0;
+        }
+
+        @Override
+        public List<LocalVariableInfo> getLocalVariables() {
+            int from = localStart[index];
+            int to = localStart[index + 1];
+            return new AbstractList<LocalVariableInfo>() {
+                @Override
+                public LocalVariableInfo get(int k) {
+                    return new LocalVariableView(from + checkIndex(k, to - from));
+                }
+
+                @Override
+                public int size() {
+                    return to - from;
+                }
+            };
+        }
+    }
+
+    private class LocalVariableView extends LocalVariableInfo {
+        private final int index;
+
+        LocalVariableView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            return names.getName(localNameIds[index]);
+        }
+
+        @Override
+        public String getType() {
+            return symbols.getSimpleName(localTypeIds[index]);
+        }
+
+        @Override
+        public int getTypeId() {
+            return localTypeIds[index];
+        }
+    }
+}
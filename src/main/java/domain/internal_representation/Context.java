@@ -1,22 +1,26 @@
 package domain.internal_representation;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 /**
  * Represents the complete context of the analyzed codebase.
  * Contains all ClassInfo objects and their dependency relationships.
+ * The class list and bytecode sources are read-only views, so a Context can be shared
+ * between checks running on different threads.
+ * Bytecode is not held in memory: each class has a BytecodeSource that reads it when asked.
  */
 public class Context {
     private final List<ClassInfo> classes;
     private final DependencyInfo dependencyInfo;
     private final String folderPath;
-    private final Map<String, byte[]> classBytecode;
+    private final Map<String, BytecodeSource> classBytecode;
 
-    public Context(List<ClassInfo> classes, DependencyInfo dependencyInfo,  String folderPath,Map<String, byte[]> classBytecode) {
-        this.classes = classes;
+    public Context(List<ClassInfo> classes, DependencyInfo dependencyInfo,  String folderPath, Map<String, BytecodeSource> classBytecode) {
+        this.classes = Collections.unmodifiableList(classes);
         this.dependencyInfo = dependencyInfo;
         this.folderPath = folderPath;
-        this.classBytecode = classBytecode;
+        this.classBytecode = Collections.unmodifiableMap(classBytecode);
     }
 
     public List<ClassInfo> getClasses() {
@@ -27,18 +31,31 @@ public class Context {
         return dependencyInfo;
     }
 
+    /**
+     * The interned names the model's type ids refer to.
+     */
+    public SymbolTable getSymbolTable() {
+        return dependencyInfo.getSymbolTable();
+    }
+
     public String getFolderPath() {
         return folderPath;
     }
 
+    /**
+     * Reads the bytecode of a class, given by fully qualified name, from where it was loaded,
+     * or returns null if the context has none for it.
+     */
     public byte[] getClassBytecode(String className) {
-        return classBytecode.get(className);
-
+        BytecodeSource source = classBytecode.get(className);
+        return source != null ? source.read() : null;
     }
 
-    public Map<String,byte[]>  getBytecodeMap() {
+    /**
+     * Where the bytecode of each class can be read from, keyed by fully qualified class name.
+     */
+    public Map<String, BytecodeSource> getBytecodeSources() {
         return classBytecode;
-
     }
 
     public int getClassCount() {
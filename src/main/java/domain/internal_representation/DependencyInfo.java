@@ -1,11 +1,21 @@
 package domain.internal_representation;
 
-import java.util.Map;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * Represents the dependency relationships between classes in the analyzed codebase.
- * Uses an adjacency matrix to store the relationship type between each pair of classes.
+ * Stores the graph sparsely: each class keeps a compact list of its outgoing edges
+ * (target index plus a byte-coded relationship type) and of the classes pointing at it,
+ * so memory grows with the number of edges rather than with the number of classes squared.
+ * Classes are looked up by their SymbolTable id through a plain array, so linking the graph
+ * does not hash any names. Ids stand for fully qualified names, so classes with the same simple
+ * name in different packages are separate nodes.
+ *
+ * The graph is filled in by the converter and only read afterwards. Reads never modify it,
+ * so once it has been safely published (e.g. by handing the Context to an ExecutorService)
+ * any number of checks can query it concurrently. To re-link classes that changed, the converter
+ * fills in a copy (see copyWithoutDependencies) that shares the untouched rows, and the published
+ * graph stays as it was for anyone still reading it.
  *
  * Relationship types:
  * - NONE: No relationship (or self-reference)
@@ -18,52 +28,302 @@ import java.util.HashMap;
  *   - A method in Class P has a local variable of type Class Q
  */
 public class DependencyInfo {
-    private final DependencyType[][] adjacencyMatrix;
-    private final Map<String, Integer> classNameToIndex;
+    private static final DependencyType[] TYPES = DependencyType.values();
+    private static final int[] NO_EDGES = new int[0];
+    private static final byte[] NO_TYPES = new byte[0];
+
+    private final SymbolTable symbols;
+    private final int[] indexToNameId;
     private final int size;
 
-    public DependencyInfo(Map<String, Integer> classNameToIndex, int size) {
-        this.classNameToIndex = classNameToIndex;
-        this.size = size;
-        this.adjacencyMatrix = new DependencyType[size][size];
-        initializeMatrix();
+    // Class index for each symbol id, -1 for types that are not analyzed classes
+    private final int[] classIndexBySymbol;
+
+    // Outgoing edges of class i live in the first successorCount[i] slots
+    private final int[][] successors;
+    private final byte[][] successorTypes;
+    private final int[] successorCount;
+
+    // Incoming edges only record the source; the type is stored once, on the outgoing side
+    private final int[][] predecessors;
+    private final int[] predecessorCount;
+
+    private int edgeCount;
+
+    // In a copy, rows still shared with the graph it was copied from; null when every row is this graph's own
+    private final boolean[] sharedSuccessors;
+    private final boolean[] sharedPredecessors;
+
+    /**
+     * Creates an empty graph over the classes whose name ids are given, class i having classNameIds[i].
+     * If the same qualified name occurs twice (e.g. a class duplicated in two archives), lookups by that name resolve to the later one.
+     */
+    public DependencyInfo(SymbolTable symbols, int[] classNameIds) {
+        this.symbols = symbols;
+        this.size = classNameIds.length;
+        this.indexToNameId = classNameIds.clone();
+        this.classIndexBySymbol = new int[symbols.size()];
+        Arrays.fill(classIndexBySymbol, -1);
+        for (int i = 0; i < size; i++) {
+            classIndexBySymbol[classNameIds[i]] = i;
+        }
+
+        this.successors = new int[size][];
+        this.successorTypes = new byte[size][];
+        this.successorCount = new int[size];
+        this.predecessors = new int[size][];
+        this.predecessorCount = new int[size];
+        Arrays.fill(successors, NO_EDGES);
+        Arrays.fill(successorTypes, NO_TYPES);
+        Arrays.fill(predecessors, NO_EDGES);
+        this.sharedSuccessors = null;
+        this.sharedPredecessors = null;
     }
 
-    private void initializeMatrix() {
-        for (int i = 0; i < adjacencyMatrix.length; i++) {
-            for (int j = 0; j < adjacencyMatrix[i].length; j++) {
-                adjacencyMatrix[i][j] = DependencyType.NONE;
+    private DependencyInfo(DependencyInfo source) {
+        this.symbols = source.symbols;
+        this.size = source.size;
+        // Never written after construction, so they can be shared as they are
+        this.indexToNameId = source.indexToNameId;
+        this.classIndexBySymbol = source.classIndexBySymbol;
+
+        this.successors = source.successors.clone();
+        this.successorTypes = source.successorTypes.clone();
+        this.successorCount = source.successorCount.clone();
+        this.predecessors = source.predecessors.clone();
+        this.predecessorCount = source.predecessorCount.clone();
+        this.edgeCount = source.edgeCount;
+        this.sharedSuccessors = new boolean[size];
+        this.sharedPredecessors = new boolean[size];
+        Arrays.fill(sharedSuccessors, true);
+        Arrays.fill(sharedPredecessors, true);
+    }
+
+    /**
+     * A copy of this graph without the outgoing edges of the given classes, to be filled in again after they changed.
+     * The copy shares every row it does not modify with this graph, and copies a row before its first change,
+     * so this graph is never written to and stays safe to read while the copy is linked.
+     */
+    public DependencyInfo copyWithoutDependencies(int[] fromIndices) {
+        DependencyInfo copy = new DependencyInfo(this);
+        for (int fromIndex : fromIndices) {
+            for (int k = 0; k < copy.successorCount[fromIndex]; k++) {
+                copy.removePredecessor(copy.successors[fromIndex][k], fromIndex);
             }
+            copy.edgeCount -= copy.successorCount[fromIndex];
+            copy.successors[fromIndex] = NO_EDGES;
+            copy.successorTypes[fromIndex] = NO_TYPES;
+            copy.successorCount[fromIndex] = 0;
+            copy.sharedSuccessors[fromIndex] = false;
         }
+        return copy;
     }
 
+    /**
+     * The relationship between two classes given by fully qualified name, e.g. "com.example.Order".
+     */
     public DependencyType getDependency(String fromClass, String toClass) {
-        Integer fromIndex = classNameToIndex.get(fromClass);
-        Integer toIndex = classNameToIndex.get(toClass);
+        int fromIndex = getClassIndex(fromClass);
+        int toIndex = getClassIndex(toClass);
 
-        if (fromIndex == null || toIndex == null) {
+        if (fromIndex == -1 || toIndex == -1) {
             return DependencyType.NONE;
         }
 
-        return adjacencyMatrix[fromIndex][toIndex];
+        return getDependency(fromIndex, toIndex);
+    }
+
+    public DependencyType getDependency(int fromIndex, int toIndex) {
+        int slot = findSuccessor(fromIndex, toIndex);
+        return slot >= 0 ? TYPES[successorTypes[fromIndex][slot]] : DependencyType.NONE;
     }
 
 
+    /**
+     * Sets the relationship between two classes given by fully qualified name; unknown classes are ignored.
+     */
     public void setDependency(String fromClass, String toClass, DependencyType type) {
-        Integer fromIndex = classNameToIndex.get(fromClass);
-        Integer toIndex = classNameToIndex.get(toClass);
+        int fromIndex = getClassIndex(fromClass);
+        int toIndex = getClassIndex(toClass);
 
-        if (fromIndex != null && toIndex != null) {
-            adjacencyMatrix[fromIndex][toIndex] = type;
+        if (fromIndex != -1 && toIndex != -1) {
+            setDependency(fromIndex, toIndex, type);
         }
     }
 
+    public void setDependency(int fromIndex, int toIndex, DependencyType type) {
+        int slot = findSuccessor(fromIndex, toIndex);
+
+        if (slot >= 0) {
+            if (type == DependencyType.NONE) {
+                removeEdge(fromIndex, slot, toIndex);
+            } else {
+                ownSuccessors(fromIndex);
+                successorTypes[fromIndex][slot] = (byte) type.ordinal();
+            }
+            return;
+        }
 
+        if (type != DependencyType.NONE) {
+            addEdge(fromIndex, toIndex, type);
+        }
+    }
+
+    /**
+     * Number of classes this class depends on.
+     */
+    public int getSuccessorCount(int index) {
+        return successorCount[index];
+    }
+
+    /**
+     * Index of the k-th class this class depends on, 0 <= k < getSuccessorCount(index).
+     */
+    public int getSuccessor(int index, int k) {
+        return successors[index][k];
+    }
+
+    /**
+     * Relationship type of the k-th outgoing edge of this class.
+     */
+    public DependencyType getSuccessorType(int index, int k) {
+        return TYPES[successorTypes[index][k]];
+    }
+
+    /**
+     * Number of classes that depend on this class.
+     */
+    public int getPredecessorCount(int index) {
+        return predecessorCount[index];
+    }
+
+    /**
+     * Index of the k-th class that depends on this class, 0 <= k < getPredecessorCount(index).
+     */
+    public int getPredecessor(int index, int k) {
+        return predecessors[index][k];
+    }
+
+    /**
+     * Index of the class with this fully qualified name, or -1 if it is not one of the analyzed classes.
+     */
     public int getClassIndex(String className) {
-        return classNameToIndex.getOrDefault(className, -1);
+        int symbol = symbols.find(className);
+        return symbol != -1 ? getClassIndexOfSymbol(symbol) : -1;
+    }
+
+    /**
+     * Index of the class with this SymbolTable name id, or -1 if the type is not one of the analyzed classes.
+     */
+    public int getClassIndexOfSymbol(int symbol) {
+        return symbol >= 0 && symbol < classIndexBySymbol.length ? classIndexBySymbol[symbol] : -1;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbols;
+    }
+
+    /**
+     * The simple name of the class, for display only: classes in different packages can share it,
+     * so anything that identifies a class must use getQualifiedClassName or the index.
+     */
+    public String getClassName(int index) {
+        return symbols.getSimpleName(indexToNameId[index]);
+    }
+
+    /**
+     * The fully qualified name of the class, which identifies it.
+     */
+    public String getQualifiedClassName(int index) {
+        return symbols.getName(indexToNameId[index]);
+    }
+
+    /**
+     * The SymbolTable id of the class's name.
+     */
+    public int getClassNameId(int index) {
+        return indexToNameId[index];
     }
 
     public int getSize() {
         return size;
     }
-}
\ No newline at end of file
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    // Out-degree is small in practice, so a linear scan beats any per-node hashing
+    private int findSuccessor(int fromIndex, int toIndex) {
+        int[] targets = successors[fromIndex];
+        int count = successorCount[fromIndex];
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == toIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addEdge(int fromIndex, int toIndex, DependencyType type) {
+        ownSuccessors(fromIndex);
+        ownPredecessors(toIndex);
+        int count = successorCount[fromIndex];
+        if (count == successors[fromIndex].length) {
+            int capacity = Math.max(4, count * 2);
+            successors[fromIndex] = Arrays.copyOf(successors[fromIndex], capacity);
+            successorTypes[fromIndex] = Arrays.copyOf(successorTypes[fromIndex], capacity);
+        }
+        successors[fromIndex][count] = toIndex;
+        successorTypes[fromIndex][count] = (byte) type.ordinal();
+        successorCount[fromIndex] = count + 1;
+
+        int incoming = predecessorCount[toIndex];
+        if (incoming == predecessors[toIndex].length) {
+            predecessors[toIndex] = Arrays.copyOf(predecessors[toIndex], Math.max(4, incoming * 2));
+        }
+        predecessors[toIndex][incoming] = fromIndex;
+        predecessorCount[toIndex] = incoming + 1;
+
+        edgeCount++;
+    }
+
+    private void removeEdge(int fromIndex, int slot, int toIndex) {
+        ownSuccessors(fromIndex);
+        int last = --successorCount[fromIndex];
+        successors[fromIndex][slot] = successors[fromIndex][last];
+        successorTypes[fromIndex][slot] = successorTypes[fromIndex][last];
+
+        removePredecessor(toIndex, fromIndex);
+        edgeCount--;
+    }
+
+    private void removePredecessor(int toIndex, int fromIndex) {
+        ownPredecessors(toIndex);
+        int[] sources = predecessors[toIndex];
+        int incoming = predecessorCount[toIndex];
+        for (int i = 0; i < incoming; i++) {
+            if (sources[i] == fromIndex) {
+                sources[i] = sources[incoming - 1];
+                predecessorCount[toIndex] = incoming - 1;
+                break;
+            }
+        }
+    }
+
+    // Copy-on-write for copies: a row still shared with the original is copied before it is first changed
+    private void ownSuccessors(int index) {
+        if (sharedSuccessors != null && sharedSuccessors[index]) {
+            successors[index] = successors[index].clone();
+            successorTypes[index] = successorTypes[index].clone();
+            sharedSuccessors[index] = false;
+        }
+    }
+
+    private void ownPredecessors(int index) {
+        if (sharedPredecessors != null && sharedPredecessors[index]) {
+            predecessors[index] = predecessors[index].clone();
+            sharedPredecessors[index] = false;
+        }
+    }
+}
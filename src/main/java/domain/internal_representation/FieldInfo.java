@@ -8,18 +8,35 @@ public class FieldInfo {
     private final String name;
     private final String className;
     private final String type;
-    private final boolean isPublic;
+    private final int typeId;
+    private final Visibility visibility;
+    private final boolean isStatic;
     private final boolean isFinal;
 
-    public FieldInfo(String name, String className, String type,
-                     boolean isPublic, boolean isFinal) {
+    public FieldInfo(String name, String className, String type, int typeId,
+                     Visibility visibility, boolean isStatic, boolean isFinal) {
         this.name = name;
         this.className = className;
         this.type = type;
-        this.isPublic = isPublic;
+        this.typeId = typeId;
+        this.visibility = visibility;
+        this.isStatic = isStatic;
         this.isFinal = isFinal;
     }
 
+    /**
+     * For views that compute every getter from another storage layout instead of these fields.
+     */
+    protected FieldInfo() {
+        this.name = null;
+        this.className = null;
+        this.type = null;
+        this.typeId = -1;
+        this.visibility = null;
+        this.isStatic = false;
+        this.isFinal = false;
+    }
+
     public String getName() {
         return name;
     }
@@ -32,8 +49,23 @@ public class FieldInfo {
         return type;
     }
 
+    /**
+     * The SymbolTable id of the type name.
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
     public boolean isPublic() {
-        return isPublic;
+        return getVisibility() == Visibility.PUBLIC;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
     }
 
     public boolean isFinal() {
@@ -7,10 +7,21 @@ package domain.internal_representation;
 public class LocalVariableInfo {
     private final String name;
     private final String type;
+    private final int typeId;
 
-    public LocalVariableInfo(String name, String type) {
+    public LocalVariableInfo(String name, String type, int typeId) {
         this.name = name;
         this.type = type;
+        this.typeId = typeId;
+    }
+
+    /**
+     * For views that compute every getter from another storage layout instead of these fields.
+     */
+    protected LocalVariableInfo() {
+        this.name = null;
+        this.type = null;
+        this.typeId = -1;
     }
 
     public String getName() {
@@ -21,4 +32,11 @@ public class LocalVariableInfo {
         return type;
     }
 
+    /**
+     * The SymbolTable id of the type name.
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
 }
\ No newline at end of file
@@ -1,26 +1,52 @@
 package domain.internal_representation;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents the internal representation of a Java method.
  * Contains all relevant information about the method structure.
+ * Immutable once built.
  */
 public class MethodInfo {
     private final String name;
     private final String className;
     private final String returnType;
-    private final boolean isPublic;
+    private final int returnTypeId;
+    private final List<String> parameterTypes;
+    private final int[] parameterTypeIds;
+    private final Visibility visibility;
     private final boolean isStatic;
+    private final boolean isAbstract;
     private final List<LocalVariableInfo> localVariables;
 
-    public MethodInfo(String name, String className, String returnType, boolean isPublic, boolean isStatic, List<LocalVariableInfo> localVariables) {
+    public MethodInfo(String name, String className, String returnType, int returnTypeId, List<String> parameterTypes, int[] parameterTypeIds, Visibility visibility, boolean isStatic, boolean isAbstract, List<LocalVariableInfo> localVariables) {
         this.name = name;
         this.className = className;
         this.returnType = returnType;
-        this.isPublic = isPublic;
+        this.returnTypeId = returnTypeId;
+        this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+        this.parameterTypeIds = parameterTypeIds.clone();
+        this.visibility = visibility;
         this.isStatic = isStatic;
-        this.localVariables = localVariables;
+        this.isAbstract = isAbstract;
+        this.localVariables = Collections.unmodifiableList(localVariables);
+    }
+
+    /**
+     * For views that compute every getter from another storage layout instead of these fields.
+     */
+    protected MethodInfo() {
+        this.name = null;
+        this.className = null;
+        this.returnType = null;
+        this.returnTypeId = -1;
+        this.parameterTypes = null;
+        this.parameterTypeIds = null;
+        this.visibility = null;
+        this.isStatic = false;
+        this.isAbstract = false;
+        this.localVariables = null;
     }
 
     public String getName() {
@@ -35,14 +61,44 @@ public class MethodInfo {
         return returnType;
     }
 
+    /**
+     * The SymbolTable id of the return type name.
+     */
+    public int getReturnTypeId() {
+        return returnTypeId;
+    }
+
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public int getParameterCount() {
+        return parameterTypeIds.length;
+    }
+
+    /**
+     * The SymbolTable id of the i-th parameter's type name.
+     */
+    public int getParameterTypeId(int i) {
+        return parameterTypeIds[i];
+    }
+
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
     public boolean isPublic() {
-        return isPublic;
+        return getVisibility() == Visibility.PUBLIC;
     }
 
     public boolean isStatic() {
         return isStatic;
     }
 
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
     public List<LocalVariableInfo> getLocalVariables() {
         return localVariables;
     }
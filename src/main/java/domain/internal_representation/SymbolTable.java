@@ -0,0 +1,161 @@
+package domain.internal_representation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Interns class and type names: every distinct name gets one canonical String and a dense int id.
+ * The model refers to types by these ids, so the dependency graph can link classes by array lookups
+ * instead of hashing names again, and equal names share a single String instance.
+ *
+ * Types are identified by their fully qualified name ("com.example.Order", "int", "com.example.Order[]"),
+ * so classes that share a simple name in different packages stay apart. getSimpleName gives the short
+ * form ("Order") that the model's String getters and the reports show.
+ *
+ * Names are found through an open-addressing table of ints probed with the String's cached hash code,
+ * so a lookup allocates nothing and no boxed ids or map nodes are kept, even for hundreds of thousands
+ * of names. Ids are handed out in the order names are first seen and never change. Interning is
+ * thread-safe, so classes can be converted in parallel against one table: lookups probe without
+ * locking and only take the lock when the name looks absent. A slot is filled only after the name's
+ * entries, with release semantics, so a reader that finds an id also sees its names.
+ */
+public class SymbolTable {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Replaced under the lock when it grows; a reader keeps using whichever version it picked up
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int size;
+
+    /**
+     * Returns the id of the name, adding it if it is new.
+     */
+    public int intern(String name) {
+        int id = table.find(name);
+        return id != -1 ? id : add(name);
+    }
+
+    /**
+     * Returns the id of the name, or -1 if it was never interned.
+     */
+    public int find(String name) {
+        int id = table.find(name);
+        return id != -1 ? id : findLocked(name);
+    }
+
+    /**
+     * The canonical String for the id: the fully qualified name for types.
+     */
+    public String getName(int id) {
+        return table.names[id];
+    }
+
+    /**
+     * The name without its package, e.g. "Order" for "com.example.Order"; names without a package are returned as they are.
+     */
+    public String getSimpleName(int id) {
+        return table.simpleNames[id];
+    }
+
+    /**
+     * For an array type such as "Foo[]", the id of its element type "Foo"; otherwise the id itself.
+     */
+    public int getElementId(int id) {
+        return table.elementIds[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int findLocked(String name) {
+        return table.find(name);
+    }
+
+    private synchronized int add(String name) {
+        int existing = table.find(name);
+        if (existing != -1) {
+            return existing;
+        }
+
+        // Intern the element type first, so it gets its own id before this one
+        int elementId = name.endsWith("[]") ? intern(name.substring(0, name.length() - 2)) : -1;
+
+        Table current = table;
+        if (size == current.names.length) {
+            current = current.grow();
+            table = current;
+        }
+        int id = size++;
+        current.names[id] = name;
+        current.simpleNames[id] = name.substring(name.lastIndexOf('.') + 1);
+        current.elementIds[id] = elementId == -1 ? id : elementId;
+        current.insert(name, id);
+        return id;
+    }
+
+    private static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Names by id plus the probe table, kept at most half full so probe runs stay short.
+     */
+    private static final class Table {
+        // id + 1 of the name hashed to each slot, 0 for an empty slot
+        final AtomicIntegerArray slots;
+        // Hash of each slot's name, compared before touching the String itself
+        final int[] slotHashes;
+        final String[] names;
+        final String[] simpleNames;
+        final int[] elementIds;
+
+        Table(int capacity) {
+            this(new AtomicIntegerArray(capacity * 2), new String[capacity], new String[capacity], new int[capacity]);
+        }
+
+        private Table(AtomicIntegerArray slots, String[] names, String[] simpleNames, int[] elementIds) {
+            this.slots = slots;
+            this.slotHashes = new int[slots.length()];
+            this.names = names;
+            this.simpleNames = simpleNames;
+            this.elementIds = elementIds;
+        }
+
+        int find(String name) {
+            int hash = hash(name);
+            int mask = slots.length() - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots.get(slot);
+                if (entry == 0) {
+                    return -1;
+                }
+                if (slotHashes[slot] == hash && names[entry - 1].equals(name)) {
+                    return entry - 1;
+                }
+            }
+        }
+
+        void insert(String name, int id) {
+            int hash = hash(name);
+            int mask = slots.length() - 1;
+            int slot = hash & mask;
+            while (slots.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotHashes[slot] = hash;
+            slots.lazySet(slot, id + 1);
+        }
+
+        Table grow() {
+            int capacity = names.length * 2;
+            Table grown = new Table(new AtomicIntegerArray(capacity * 2), Arrays.copyOf(names, capacity),
+                    Arrays.copyOf(simpleNames, capacity), Arrays.copyOf(elementIds, capacity));
+            for (int id = 0; id < names.length; id++) {
+                grown.insert(names[id], id);
+            }
+            return grown;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package domain.internal_representation;
+
+/**
+ * Access level of a field or method.
+ */
+public enum Visibility {
+    PUBLIC,
+    PROTECTED,
+    PACKAGE,
+    PRIVATE,
+}
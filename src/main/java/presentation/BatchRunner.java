@@ -0,0 +1,242 @@
+package presentation;
+
+import datasource.AsmConverter;
+import datasource.DataLoader;
+import domain.LintEngine;
+import domain.internal_representation.Context;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Lints many class roots (folders or archives) in one process, several at a time.
+ * The engine and its check instances are shared by all roots, and each worker thread keeps one loader,
+ * so later roots run on a warmed-up JVM. Every root gets a converter of its own, so the names of one
+ * root are not kept in a symbol table for the rest of the batch.
+ * Prints each root's report as soon as it is done, then a summary per root and overall throughput.
+ */
+class BatchRunner {
+
+    private final LintEngine engine;
+    private final Supplier<AsmConverter> converters;
+    private final ThreadLocal<DataLoader> loaders;
+    private final int jobs;
+    private final ReportFormat format;
+    private final Path outputFolder;
+    private final PrintStream console;
+    private boolean concurrentRoots;
+
+    /**
+     * Reports go to files in outputFolder, one per root, or to the console if it is null.
+     * Each root is converted by a new converter from the given supplier.
+     */
+    BatchRunner(LintEngine engine, Supplier<AsmConverter> converters, int jobs, int loaderParallelism,
+                ReportFormat format, Path outputFolder, PrintStream console) {
+        this.engine = engine;
+        this.converters = converters;
+        this.loaders = ThreadLocal.withInitial(() -> new DataLoader(loaderParallelism));
+        this.jobs = Math.max(1, jobs);
+        this.format = format;
+        this.outputFolder = outputFolder;
+        this.console = console;
+    }
+
+    /**
+     * Reads batch roots from a manifest: one path per line, blank lines and lines starting with # are skipped.
+     */
+    static List<String> readManifest(Path manifest) throws IOException {
+        List<String> roots = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            String root = line.trim();
+            if (!root.isEmpty() && !root.startsWith("#")) {
+                roots.add(root);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Lints all roots and prints the summary. Returns the number of roots that could not be linted.
+     */
+    int run(List<String> roots) throws IOException {
+        if (outputFolder != null) {
+            Files.createDirectories(outputFolder);
+        }
+        engine.setVerbose(false);
+
+        long start = System.nanoTime();
+        int threads = Math.min(jobs, Math.max(1, roots.size()));
+        concurrentRoots = threads > 1;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<RootResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < roots.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> lintRoot(index, roots.get(index))));
+            }
+
+            List<RootResult> results = new ArrayList<>();
+            for (Future<RootResult> future : futures) {
+                results.add(future.get());
+            }
+            printSummary(results, System.nanoTime() - start);
+
+            int failed = 0;
+            for (RootResult result : results) {
+                if (result.error != null) {
+                    failed++;
+                }
+            }
+            return failed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Batch root failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RootResult lintRoot(int index, String root) {
+        long start = System.nanoTime();
+        RootResult result = new RootResult(root);
+        try {
+            DataLoader loader = loaders.get();
+            Context context = converters.get().buildContext(loader.loadClassFiles(root), root, engine.getRequiredDepth());
+            result.classCount = context.getClassCount();
+            result.loadErrors = loader.getErrors().size();
+
+            if (outputFolder != null) {
+                Path file = outputFolder.resolve(getReportFileName(index, root));
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8),
+                        ConsoleResultsRenderer.BUFFER_SIZE)) {
+                    result.violationCount = writeReport(context, root, out);
+                }
+            } else if (!concurrentRoots) {
+                result.violationCount = printReport(context, root);
+            } else {
+                // Each root's report is printed in one piece, so concurrent roots do not interleave;
+                // until then it waits in a temporary file rather than on the heap
+                Path temp = Files.createTempFile("lint-report", ".tmp");
+                try {
+                    try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temp), Charset.defaultCharset()),
+                            ConsoleResultsRenderer.BUFFER_SIZE)) {
+                        writeRootHeader(root, out);
+                        result.violationCount = writeReport(context, root, out);
+                    }
+                    synchronized (console) {
+                        Files.copy(temp, console);
+                        console.flush();
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            result.error = e.getMessage();
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Streams the report of a root straight to the console; only used when roots run one at a time.
+     */
+    private int printReport(Context context, String root) throws IOException {
+        Writer out = ConsoleResultsRenderer.createConsoleWriter(console);
+        writeRootHeader(root, out);
+        return writeReport(context, root, out);
+    }
+
+    private void writeRootHeader(String root, Writer out) throws IOException {
+        if (format == ReportFormat.TEXT) {
+            out.write(System.lineSeparator() + "Root: " + root);
+        }
+    }
+
+    private int writeReport(Context context, String root, Writer out) {
+        ReportWriter report = format == ReportFormat.NDJSON
+                ? new NdjsonReportWriter(out, root)
+                : ReportWriter.create(format, out, engine.getChecks());
+        int[] count = new int[1];
+        engine.analyzeAll(context, violation -> {
+            count[0]++;
+            report.accept(violation);
+        });
+        report.finish();
+        return count[0];
+    }
+
+    // Numbered so two roots with the same folder name do not overwrite each other's report
+    private String getReportFileName(int index, String root) {
+        Path fileName = Paths.get(root).getFileName();
+        String name = fileName != null ? fileName.toString().replaceAll("[^A-Za-z0-9._-]", "_") : "root";
+        String extension = format == ReportFormat.TEXT ? "txt" : format.name().toLowerCase(Locale.ROOT);
+        return String.format("%03d-%s.%s", index + 1, name, extension);
+    }
+
+    private void printSummary(List<RootResult> results, long totalNanos) {
+        // The summary goes with the other progress messages, away from machine-readable reports on stdout
+        PrintStream out = System.out;
+        out.println();
+        out.println("===========================================");
+        out.println("  Batch Summary");
+        out.println("===========================================");
+        out.println(String.format("%-50s %10s %11s %10s", "Root", "Classes", "Violations", "Time (ms)"));
+
+        long classes = 0;
+        long violations = 0;
+        for (RootResult result : results) {
+            if (result.error != null) {
+                out.println(String.format("%-50s FAILED: %s", result.root, result.error));
+                continue;
+            }
+            String root = result.loadErrors > 0 ? result.root + " (" + result.loadErrors + " unreadable file(s))" : result.root;
+            out.println(String.format("%-50s %10d %11d %10d", root, result.classCount, result.violationCount, result.nanos / 1_000_000));
+            classes += result.classCount;
+            violations += result.violationCount;
+        }
+
+        double seconds = Math.max(totalNanos, 1) / 1e9;
+        out.println("===========================================");
+        out.println(String.format("%d root(s), %d class(es), %d violation(s) in %.2f s: %.0f classes/s, %.2f roots/s",
+                results.size(), classes, violations, seconds, classes / seconds, results.size() / seconds));
+        if (outputFolder != null) {
+            out.println("Reports written to " + outputFolder);
+        }
+    }
+
+    private static class RootResult {
+        private final String root;
+        private int classCount;
+        private int violationCount;
+        private int loadErrors;
+        private long nanos;
+        private String error;
+
+        RootResult(String root) {
+            this.root = root;
+        }
+    }
+}
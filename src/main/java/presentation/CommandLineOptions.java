@@ -0,0 +1,318 @@
+package presentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Options given on the command line. When both --path and --checks are given the linter
+ * runs without prompting, so it can be used from scripts and CI.
+ *
+ *   --path=<dir or archive>     classes to lint
+ *   --checks=<1,2,...|all>      checks to run
+ *   --format=text|ndjson|sarif  report format (default text)
+ *   --output=<file>             write the report to a file instead of the console
+ *   --cache=<dir>               keep parsed classes and per-class results between runs
+ *   --watch                     keep running and re-lint changed class files
+ *   --compact                   keep the class model in compact columnar form (less memory for large inputs)
+ *   --save-snapshot=<file>      save the built context as a binary snapshot
+ *   --snapshot-bytecode         include the class bytecode in the saved snapshot
+ *   --snapshot=<file>           lint a saved snapshot instead of reading class files
+ *   --batch <root> <root> ...   lint many folders or archives in one run (needs --checks)
+ *   --manifest=<file>           batch mode with the roots listed in a file, one per line
+ *   --jobs=<n>                  number of roots linted at the same time in batch mode
+ *   --check-timeout=<time>      stop any check that runs longer than this (e.g. 500ms, 30s, 2m) and mark its results incomplete
+ *   --timeout=<time>            stop the checks once the whole check phase takes this long; unstarted checks are skipped
+ *   --profile[=<file>]          print time, CPU and allocations per stage and check, or write them to a JSON file
+ *   --daemon[=<port>]           stay running and serve lint requests on a local port
+ *   --connect[=<port>]          send this lint request (--path, --checks, --format) to a running daemon
+ *
+ * In batch mode --output names a folder that receives one report per root.
+ */
+class CommandLineOptions {
+
+    private String path;
+    private String checks;
+    private ReportFormat format = ReportFormat.TEXT;
+    private String output;
+    private String cacheDirectory;
+    private boolean watch;
+    private boolean compact;
+    private String snapshot;
+    private String saveSnapshot;
+    private boolean snapshotBytecode;
+    private boolean batch;
+    private String manifest;
+    private int jobs;
+    private final List<String> roots = new ArrayList<>();
+    private int daemonPort;
+    private boolean profile;
+    private long checkTimeoutMillis;
+    private long timeoutMillis;
+    private String profileOutput;
+    private int connectPort;
+
+    /**
+     * Parses the arguments, throwing IllegalArgumentException with a readable message if any is invalid.
+     */
+    static CommandLineOptions parse(String[] args) {
+        CommandLineOptions options = new CommandLineOptions();
+        for (String arg : args) {
+            if (arg.startsWith("--path=")) {
+                options.path = arg.substring("--path=".length()).trim();
+            } else if (arg.startsWith("--checks=")) {
+                options.checks = arg.substring("--checks=".length()).trim();
+                String error = ConsoleUI.validateChecksSelection(options.checks);
+                if (error != null) {
+                    throw new IllegalArgumentException(error);
+                }
+            } else if (arg.startsWith("--format=")) {
+                String format = arg.substring("--format=".length()).trim();
+                try {
+                    options.format = ReportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown format: " + format + " (expected text, ndjson or sarif)");
+                }
+            } else if (arg.startsWith("--output=")) {
+                options.output = arg.substring("--output=".length()).trim();
+            } else if (arg.startsWith("--cache=")) {
+                options.cacheDirectory = arg.substring("--cache=".length());
+            } else if (arg.equals("--watch")) {
+                options.watch = true;
+            } else if (arg.equals("--compact")) {
+                options.compact = true;
+            } else if (arg.startsWith("--snapshot=")) {
+                options.snapshot = arg.substring("--snapshot=".length()).trim();
+            } else if (arg.startsWith("--save-snapshot=")) {
+                options.saveSnapshot = arg.substring("--save-snapshot=".length()).trim();
+            } else if (arg.equals("--snapshot-bytecode")) {
+                options.snapshotBytecode = true;
+            } else if (arg.equals("--batch")) {
+                options.batch = true;
+            } else if (arg.startsWith("--manifest=")) {
+                options.manifest = arg.substring("--manifest=".length()).trim();
+                options.batch = true;
+            } else if (arg.startsWith("--jobs=")) {
+                try {
+                    options.jobs = Integer.parseInt(arg.substring("--jobs=".length()).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number of jobs: " + arg);
+                }
+            } else if (arg.startsWith("--check-timeout=")) {
+                options.checkTimeoutMillis = parseDuration(arg, "--check-timeout=");
+            } else if (arg.startsWith("--timeout=")) {
+                options.timeoutMillis = parseDuration(arg, "--timeout=");
+            } else if (arg.equals("--profile")) {
+                options.profile = true;
+            } else if (arg.startsWith("--profile=")) {
+                options.profile = true;
+                options.profileOutput = arg.substring("--profile=".length()).trim();
+            } else if (arg.equals("--daemon") || arg.startsWith("--daemon=")) {
+                options.daemonPort = parsePort(arg, "--daemon");
+            } else if (arg.equals("--connect") || arg.startsWith("--connect=")) {
+                options.connectPort = parsePort(arg, "--connect");
+            } else if (!arg.startsWith("--")) {
+                options.roots.add(arg);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (options.watch && options.format != ReportFormat.TEXT) {
+            throw new IllegalArgumentException("--watch only supports the text format");
+        }
+        if (!options.batch && !options.roots.isEmpty()) {
+            throw new IllegalArgumentException("Unexpected argument: " + options.roots.get(0) + " (use --path=, or --batch for several roots)");
+        }
+        if (options.batch) {
+            if (options.checks == null) {
+                throw new IllegalArgumentException("Batch mode needs --checks");
+            }
+            if (options.watch || options.snapshot != null || options.saveSnapshot != null || options.path != null || options.profile) {
+                throw new IllegalArgumentException("Batch mode cannot be combined with --watch, --snapshot, --save-snapshot, --path or --profile");
+            }
+            if (options.format == ReportFormat.SARIF && options.output == null) {
+                throw new IllegalArgumentException("SARIF reports in batch mode need --output=<folder>");
+            }
+        }
+        if (options.watch && options.snapshot != null) {
+            throw new IllegalArgumentException("--watch needs the class files, it cannot be combined with --snapshot");
+        }
+        if (options.daemonPort != 0 && (options.path != null || options.checks != null || options.batch || options.watch
+                || options.snapshot != null || options.saveSnapshot != null || options.output != null
+                || options.compact || options.profile || options.connectPort != 0)) {
+            throw new IllegalArgumentException("--daemon only accepts --cache, --timeout and --check-timeout; paths and checks are sent by each request");
+        }
+        if (options.connectPort != 0) {
+            if (options.path == null || options.checks == null) {
+                throw new IllegalArgumentException("--connect needs --path and --checks");
+            }
+            if (options.batch || options.watch || options.snapshot != null || options.saveSnapshot != null
+                    || options.cacheDirectory != null || options.compact || options.profile
+                    || options.checkTimeoutMillis != 0 || options.timeoutMillis != 0) {
+                throw new IllegalArgumentException("--connect only accepts --path, --checks, --format and --output");
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Parses a positive duration such as 250ms, 30s or 2m into milliseconds; a bare number means seconds.
+     */
+    private static long parseDuration(String arg, String option) {
+        String value = arg.substring(option.length()).trim().toLowerCase(Locale.ROOT);
+        long unit = 1000;
+        if (value.endsWith("ms")) {
+            unit = 1;
+            value = value.substring(0, value.length() - 2);
+        } else if (value.endsWith("s")) {
+            value = value.substring(0, value.length() - 1);
+        } else if (value.endsWith("m")) {
+            unit = 60_000;
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            long duration = Long.parseLong(value.trim()) * unit;
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Time limit must be positive: " + arg);
+            }
+            return duration;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time limit: " + arg + " (expected e.g. 500ms, 30s or 2m)");
+        }
+    }
+
+    private static int parsePort(String arg, String option) {
+        if (arg.equals(option)) {
+            return LintDaemon.DEFAULT_PORT;
+        }
+        try {
+            int port = Integer.parseInt(arg.substring(option.length() + 1).trim());
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("Port out of range: " + arg);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port: " + arg);
+        }
+    }
+
+    /**
+     * The folder or archive to lint, or null to ask the user.
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * The selected checks, or null to ask the user.
+     */
+    String getChecks() {
+        return checks;
+    }
+
+    ReportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * The report file, or null to write the report to the console.
+     */
+    String getOutput() {
+        return output;
+    }
+
+    String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    boolean isWatch() {
+        return watch;
+    }
+
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Snapshot file to lint instead of reading class files, or null.
+     */
+    String getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * File to save the built context to, or null.
+     */
+    String getSaveSnapshot() {
+        return saveSnapshot;
+    }
+
+    boolean isSnapshotBytecode() {
+        return snapshotBytecode;
+    }
+
+    boolean isBatch() {
+        return batch;
+    }
+
+    /**
+     * File listing batch roots, or null.
+     */
+    String getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Roots to lint at the same time in batch mode, or 0 to pick automatically.
+     */
+    int getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Batch roots given directly on the command line.
+     */
+    List<String> getRoots() {
+        return new ArrayList<>(roots);
+    }
+
+    /**
+     * Port to serve lint requests on, or 0 if not running as a daemon.
+     */
+    int getDaemonPort() {
+        return daemonPort;
+    }
+
+    /**
+     * Port of the daemon to send this request to, or 0 to lint in this process.
+     */
+    int getConnectPort() {
+        return connectPort;
+    }
+
+    boolean isProfile() {
+        return profile;
+    }
+
+    /**
+     * JSON file to write the profile to, or null to print it as a table.
+     */
+    String getProfileOutput() {
+        return profileOutput;
+    }
+
+    /**
+     * Time limit per check in milliseconds, or 0 for none.
+     */
+    long getCheckTimeoutMillis() {
+        return checkTimeoutMillis;
+    }
+
+    /**
+     * Time limit for all checks together in milliseconds, or 0 for none.
+     */
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,109 @@
+package presentation;
+
+import domain.Violation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Prints violations as readable text as they arrive, instead of after all checks have finished.
+ * Output goes through one large buffer, so a run with many violations does not pay for a
+ * console write per line. The first violation is flushed right away; after that a timer
+ * flushes the buffer every so often, so results that arrive in a burst after a long quiet
+ * check, or stop arriving for a while, do not sit unseen in the buffer.
+ */
+class ConsoleResultsRenderer implements ReportWriter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final long FLUSH_INTERVAL_MILLIS = 200;
+
+    private final Writer out;
+    private int count;
+    private Timer flushTimer;
+
+    ConsoleResultsRenderer(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * A large buffered writer over the given console stream. The stream is never closed; finish() only flushes it.
+     */
+    static Writer createConsoleWriter(OutputStream stream) {
+        return new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE);
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            if (count == 0) {
+                writeHeader();
+            }
+            count++;
+            out.write(count + ". " + violation + System.lineSeparator() + System.lineSeparator());
+
+            if (count == 1) {
+                out.flush();
+                startFlushTimer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints the summary once all violations have been received.
+     */
+    @Override
+    public void finish() {
+        if (flushTimer != null) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+        try {
+            if (count == 0) {
+                writeHeader();
+                writeLine("No violations found are found within the code");
+            } else {
+                writeLine("Found " + count + " violation(s)");
+            }
+            writeLine("===========================================");
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writer methods lock the writer, so the timer thread can flush while violations are being written
+    private void startFlushTimer() {
+        flushTimer = new Timer("console-flush", true);
+        flushTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    // The next write reports the broken stream; the timer has nothing to do until then
+                    cancel();
+                }
+            }
+        }, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS);
+    }
+
+    private void writeHeader() throws IOException {
+        writeLine("");
+        writeLine("===========================================");
+        writeLine("  Lint Results");
+        writeLine("===========================================");
+    }
+
+    private void writeLine(String line) throws IOException {
+        out.write(line);
+        out.write(System.lineSeparator());
+    }
+}
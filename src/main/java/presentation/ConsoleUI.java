@@ -11,6 +11,7 @@ import java.util.Scanner;
  */
 class ConsoleUI implements LinterUI {
 
+    private ConsoleResultsRenderer renderer;
 
     /**
      * Prompts the user for the folder path.
@@ -43,10 +44,26 @@ class ConsoleUI implements LinterUI {
             return input;
         }
 
+        String error = validateChecksSelection(input);
+        if (error != null) {
+            System.err.println(error);
+            System.exit(1);
+        }
+
+        return input;
+    }
+
+    /**
+     * Checks a selection such as "1,2,4" or "all". Returns an error message, or null if the selection is valid.
+     */
+    static String validateChecksSelection(String input) {
+        if (input.equalsIgnoreCase("all")) {
+            return null;
+        }
+
         // allow only digits, commas, spaces
         if (!input.matches("[0-9, ]+")) {
-            System.err.println("Invalid input format. Expected digits separated by commas.");
-            System.exit(1);
+            return "Invalid input format. Expected digits separated by commas.";
         }
 
         // validate each number is between 1–7:
@@ -55,16 +72,14 @@ class ConsoleUI implements LinterUI {
             try {
                 int num = Integer.parseInt(part.trim());
                 if (num < 1 || num > 7) {
-                    System.err.println("Invalid check number: " + num);
-                    System.exit(1);
+                    return "Invalid check number: " + num;
                 }
             } catch (NumberFormatException e) {
-                System.err.println("Invalid number: " + part);
-                System.exit(1);
+                return "Invalid number: " + part;
             }
         }
 
-        return input;
+        return null;
     }
 
     /**
@@ -92,4 +107,22 @@ class ConsoleUI implements LinterUI {
         System.out.println("===========================================");
     }
 
+    /**
+     * Starts streaming violations to the console.
+     */
+    @Override
+    public ViolationSink startResults() {
+        renderer = new ConsoleResultsRenderer(ConsoleResultsRenderer.createConsoleWriter(System.out));
+        return renderer;
+    }
+
+    /**
+     * Prints the summary of the streamed violations.
+     */
+    @Override
+    public void finishResults() {
+        renderer.finish();
+        renderer = null;
+    }
+
 }
\ No newline at end of file
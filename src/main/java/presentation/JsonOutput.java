@@ -0,0 +1,56 @@
+package presentation;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Helpers for writing JSON by hand, for the report writers that stream their output.
+ */
+final class JsonOutput {
+
+    private JsonOutput() {
+    }
+
+    /**
+     * Writes the value as a quoted JSON string, escaping what the JSON spec requires.
+     */
+    static void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Writes "name": followed by the value as a JSON string.
+     */
+    static void writeField(Writer out, String name, String value) throws IOException {
+        writeString(out, name);
+        out.write(':');
+        writeString(out, value);
+    }
+}
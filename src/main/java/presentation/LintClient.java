@@ -0,0 +1,70 @@
+package presentation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Sends one lint request to a running LintDaemon and copies the report it streams back.
+ */
+class LintClient {
+
+    private LintClient() {
+    }
+
+    /**
+     * Returns the exit code: 0 if the daemon linted the root, 1 if it refused the request or could not be reached.
+     */
+    static int run(CommandLineOptions options, PrintStream console) {
+        String token;
+        try {
+            token = LintDaemon.readToken(options.getConnectPort());
+        } catch (IOException e) {
+            System.err.println("Could not read the lint daemon's token from " + LintDaemon.getTokenFile(options.getConnectPort())
+                    + "; is a daemon running on port " + options.getConnectPort() + "?");
+            return 1;
+        }
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), options.getConnectPort())) {
+            Writer request = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            request.write(token + "\n");
+            // The daemon may run in another directory, so relative paths are resolved here
+            request.write("--path=" + Paths.get(options.getPath()).toAbsolutePath() + "\n");
+            request.write("--checks=" + options.getChecks() + "\n");
+            request.write("--format=" + options.getFormat().name().toLowerCase(Locale.ROOT) + "\n");
+            request.write("\n");
+            request.flush();
+
+            InputStream in = socket.getInputStream();
+            String status = LintDaemon.readLine(in);
+            if (status == null || !status.startsWith("OK")) {
+                System.err.println(status == null ? "The daemon closed the connection" : status.substring(status.indexOf(' ') + 1));
+                return 1;
+            }
+
+            if (options.getOutput() != null) {
+                try (OutputStream out = Files.newOutputStream(Paths.get(options.getOutput()))) {
+                    in.transferTo(out);
+                }
+                System.out.println("Report written to " + options.getOutput());
+            } else {
+                in.transferTo(console);
+                console.flush();
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Could not reach the lint daemon on port " + options.getConnectPort() + ": " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package presentation;
+
+import datasource.AsmConverter;
+import datasource.ClassCache;
+import datasource.DataLoader;
+import datasource.IncrementalContextBuilder;
+import domain.LintEngine;
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.Context;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Long-running linter that serves lint requests over a local socket, so editors and hooks do not pay
+ * for JVM startup, check creation and class loading on every run.
+ *
+ * Contexts of recently linted roots stay in memory. Before each request the root's class files are
+ * compared by size and modification time with the last request: unchanged roots are linted as they are,
+ * changed class files in a folder are re-converted incrementally, and a changed archive is read again.
+ *
+ * Every daemon writes a random token to a file only its user can read (see getTokenFile), and refuses
+ * requests that do not start with it, so other local users cannot make it read their choice of files.
+ *
+ * Protocol, one connection per request: the client sends the token on the first line, then command line
+ * options (--path, --checks and optionally --format), one per line, followed by an empty line. The daemon
+ * answers with a status line, "OK ..." or "ERROR <message>", followed by the report in the requested format.
+ */
+class LintDaemon {
+
+    static final int DEFAULT_PORT = 47311;
+
+    // Contexts of large codebases are big; keep only the most recently used roots
+    private static final int MAX_RESIDENT_ROOTS = 8;
+
+    // Engines are small, but every distinct selection a client sends would otherwise stay forever
+    private static final int MAX_ENGINES = 16;
+
+    private final int port;
+    private final ClassCache cache;
+    private final int processors;
+    private final ExecutorService checkExecutor;
+    private final ExecutorService connectionExecutor;
+
+    private byte[] token;
+    private long checkTimeoutMillis;
+    private long timeoutMillis;
+
+    private final Map<String, LintEngine> engines = new LinkedHashMap<String, LintEngine>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LintEngine> eldest) {
+            return size() > MAX_ENGINES;
+        }
+    };
+    private final Map<String, ResidentRoot> residentRoots = new LinkedHashMap<String, ResidentRoot>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ResidentRoot> eldest) {
+            return size() > MAX_RESIDENT_ROOTS;
+        }
+    };
+
+    LintDaemon(int port, ClassCache cache, int processors) {
+        this.port = port;
+        this.cache = cache;
+        this.processors = processors;
+        this.checkExecutor = Executors.newFixedThreadPool(processors, runnable -> newDaemonThread(runnable, "lint-check"));
+        this.connectionExecutor = Executors.newCachedThreadPool(runnable -> newDaemonThread(runnable, "lint-request"));
+    }
+
+    /**
+     * Time limits applied to the checks of every request, in milliseconds; 0 means no limit.
+     */
+    void setTimeouts(long checkTimeoutMillis, long timeoutMillis) {
+        this.checkTimeoutMillis = checkTimeoutMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Serves requests until the process is stopped. Only accepts connections from this machine.
+     */
+    void run() throws IOException {
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            // Written only once the port is ours, so a second daemon cannot replace a running one's token
+            Path tokenFile = getTokenFile(port);
+            token = writeToken(tokenFile).getBytes(StandardCharsets.US_ASCII);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                flushCache();
+                try {
+                    Files.deleteIfExists(tokenFile);
+                } catch (IOException e) {
+                    // Replaced by the next daemon on this port
+                }
+            }));
+            System.out.println("Lint daemon listening on " + server.getLocalSocketAddress() + " (Ctrl+C to stop)");
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                connectionExecutor.execute(() -> serve(socket));
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        long start = System.nanoTime();
+        try (Socket connection = socket;
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8),
+                     ConsoleResultsRenderer.BUFFER_SIZE)) {
+            InputStream in = connection.getInputStream();
+            String requestToken = readLine(in);
+            if (requestToken == null || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.US_ASCII))) {
+                writeStatus(out, "ERROR Missing or wrong token");
+                System.err.println("Refused a request without the daemon's token");
+                return;
+            }
+
+            CommandLineOptions options;
+            try {
+                options = CommandLineOptions.parse(readRequest(in).toArray(new String[0]));
+                if (options.getPath() == null || options.getChecks() == null) {
+                    throw new IllegalArgumentException("A request needs --path and --checks");
+                }
+                if (options.getOutput() != null || options.isBatch() || options.isWatch() || options.getSnapshot() != null
+                        || options.getSaveSnapshot() != null || options.getDaemonPort() != 0 || options.getConnectPort() != 0) {
+                    throw new IllegalArgumentException("A request can only contain --path, --checks and --format");
+                }
+            } catch (IllegalArgumentException e) {
+                writeStatus(out, "ERROR " + e.getMessage());
+                return;
+            }
+
+            LintEngine engine = getEngine(options.getChecks());
+            ResidentRoot root = getResidentRoot(options.getPath());
+            // One request per root at a time: the incremental builder and its context are not shared safely
+            synchronized (root) {
+                String state;
+                try {
+                    state = root.refresh(engine.getRequiredDepth());
+                } catch (IOException | RuntimeException e) {
+                    writeStatus(out, "ERROR " + e.getMessage());
+                    return;
+                }
+                Context context = root.builder.getContext();
+                writeStatus(out, "OK classes=" + context.getClassCount() + " context=" + state);
+
+                ReportWriter report = ReportWriter.create(options.getFormat(), out, engine.getChecks());
+                engine.analyzeAll(context, checkExecutor, report);
+                report.finish();
+                // The client reads until the end of the stream, so it has its answer before the cache is written
+                out.flush();
+                connection.shutdownOutput();
+                long answered = System.nanoTime();
+
+                // Entries are only held while their classes are reachable, so they are written while the root still is
+                flushCache();
+                String cacheState = cache != null ? ", cache: " + cache.getHits() + " hit(s), " + cache.getMisses() + " miss(es)" : "";
+                System.out.println(options.getPath() + ": " + context.getClassCount() + " class(es), context " + state
+                        + ", answered in " + (answered - start) / 1_000_000 + " ms" + cacheState);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Usually the client went away mid-report; the daemon keeps serving others
+            System.err.println("Request failed: " + e);
+        }
+    }
+
+    /**
+     * Writes what the last requests converted and checked, so a restarted daemon can reuse it.
+     */
+    private void flushCache() {
+        if (cache == null) {
+            return;
+        }
+        // Requests for different roots finish concurrently; one flush at a time is enough
+        synchronized (cache) {
+            try {
+                cache.flush();
+            } catch (IOException e) {
+                System.err.println("Could not write the cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private List<String> readRequest(InputStream in) throws IOException {
+        List<String> args = new ArrayList<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            args.add(line);
+        }
+        return args;
+    }
+
+    /**
+     * Reads one UTF-8 line without buffering past it, or returns null at the end of the stream.
+     */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int next;
+        while ((next = in.read()) != -1 && next != '\n') {
+            line.write(next);
+        }
+        if (next == -1 && line.size() == 0) {
+            return null;
+        }
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * The file holding the token of the daemon on the given port, in the user's home folder.
+     */
+    static Path getTokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".lint-daemon", "daemon-" + port + ".token");
+    }
+
+    /**
+     * Reads the token a client must send to the daemon on the given port.
+     */
+    static String readToken(int port) throws IOException {
+        return new String(Files.readAllBytes(getTokenFile(port)), StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Creates a new random token and replaces the file with it. On POSIX file systems only the owner can
+     * read the file or list its folder.
+     */
+    private static String writeToken(Path file) throws IOException {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        Path folder = file.getParent();
+        Files.createDirectories(folder);
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(folder, PosixFilePermissions.fromString("rwx------"));
+        }
+        // Temporary files are created readable by their owner only, and the move makes the token appear whole
+        Path temp = Files.createTempFile(folder, "daemon", ".tmp");
+        try {
+            if (posix) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            }
+            Files.write(temp, token.toString().getBytes(StandardCharsets.US_ASCII));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return token.toString();
+    }
+
+    private void writeStatus(Writer out, String status) throws IOException {
+        out.write(status.replace('\n', ' '));
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * The engine for a check selection. Selections naming the same checks share one engine, whose
+     * checks run in ascending order whatever order the request listed them in.
+     */
+    private synchronized LintEngine getEngine(String checks) {
+        return engines.computeIfAbsent(normalizeChecks(checks), key -> {
+            LintEngine engine = new LintEngine(key);
+            engine.setVerbose(false);
+            engine.setResultCache(cache);
+            engine.setCheckTimeout(checkTimeoutMillis);
+            engine.setTotalTimeout(timeoutMillis);
+            return engine;
+        });
+    }
+
+    /**
+     * The selection as a sorted, comma-separated list without blanks or repeats, e.g. "1,2" for " 2,1,2".
+     */
+    static String normalizeChecks(String checks) {
+        if (checks.trim().equalsIgnoreCase("all")) {
+            return "all";
+        }
+        Set<String> selections = new TreeSet<>();
+        for (String selection : checks.split(",")) {
+            String trimmed = selection.trim();
+            if (!trimmed.isEmpty()) {
+                selections.add(trimmed);
+            }
+        }
+        return String.join(",", selections);
+    }
+
+    private synchronized ResidentRoot getResidentRoot(String path) {
+        String key = Paths.get(path).toAbsolutePath().normalize().toString();
+        return residentRoots.computeIfAbsent(key, ResidentRoot::new);
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * A root kept in memory between requests, together with what its class files looked like when it was loaded.
+     */
+    private class ResidentRoot {
+        private final String path;
+        private final DataLoader loader = new DataLoader(processors);
+        private IncrementalContextBuilder builder;
+        private AnalysisDepth depth;
+        private Map<String, FileStamp> stamps = new HashMap<>();
+
+        ResidentRoot(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Brings the context up to date with the files on disk and returns how: reused, updated or built.
+         */
+        String refresh(AnalysisDepth requiredDepth) throws IOException {
+            Path root = Paths.get(path);
+            if (!Files.exists(root)) {
+                throw new IOException("Folder does not exist: " + path);
+            }
+            boolean folder = Files.isDirectory(root);
+            Map<String, FileStamp> current = scan(root, folder);
+
+            if (builder == null || depth.max(requiredDepth) != depth || (!folder && !current.equals(stamps))) {
+                Map<String, byte[]> classFiles = loader.loadClassFiles(path);
+                if (classFiles.isEmpty()) {
+                    throw new IOException("No .class files found in " + path);
+                }
+                depth = builder == null ? requiredDepth : depth.max(requiredDepth);
+                builder = new IncrementalContextBuilder(new AsmConverter(processors, cache), path, depth);
+                builder.build(classFiles);
+                stamps = current;
+                return "built";
+            }
+
+            List<Path> changed = new ArrayList<>();
+            for (Map.Entry<String, FileStamp> file : current.entrySet()) {
+                if (!file.getValue().equals(stamps.get(file.getKey()))) {
+                    changed.add(Paths.get(file.getKey()));
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            for (String file : stamps.keySet()) {
+                if (!current.containsKey(file)) {
+                    removed.add(file);
+                }
+            }
+            if (changed.isEmpty() && removed.isEmpty()) {
+                return "reused";
+            }
+
+            builder.update(loader.loadClassFiles(changed), removed);
+            stamps = current;
+            return "updated (" + (changed.size() + removed.size()) + " file(s))";
+        }
+
+        // Keys match the paths DataLoader uses for the same folder, so they line up with the builder's
+        private Map<String, FileStamp> scan(Path root, boolean folder) throws IOException {
+            Map<String, FileStamp> current = new HashMap<>();
+            if (!folder) {
+                current.put(root.toString(), FileStamp.of(Files.readAttributes(root, BasicFileAttributes.class)));
+                return current;
+            }
+            List<Path> classFiles;
+            try (Stream<Path> paths = Files.walk(root)) {
+                classFiles = paths.filter(file -> file.toString().endsWith(".class")).collect(Collectors.toList());
+            }
+            for (Path file : classFiles) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        current.put(file.toString(), FileStamp.of(attributes));
+                    }
+                } catch (IOException e) {
+                    // Deleted while scanning; it counts as removed
+                }
+            }
+            return current;
+        }
+    }
+
+    private static class FileStamp {
+        private final long modified;
+        private final long size;
+
+        private FileStamp(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        static FileStamp of(BasicFileAttributes attributes) {
+            return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp stamp = (FileStamp) other;
+            return modified == stamp.modified && size == stamp.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(modified) * 31 + Long.hashCode(size);
+        }
+    }
+}
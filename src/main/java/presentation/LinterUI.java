@@ -2,6 +2,7 @@ package presentation;
 
 import domain.LintEngine;
 import domain.Violation;
+import domain.ViolationSink;
 import java.util.List;
 
 /**
@@ -14,6 +15,16 @@ interface LinterUI {
      */
     void displayResults(List<Violation> violations);
 
+    /**
+     * Starts displaying violations one at a time, as the checks find them.
+     */
+    ViolationSink startResults();
+
+    /**
+     * Finishes the display started by startResults.
+     */
+    void finishResults();
+
     /**
      * Prompts the user for the folder path.
      */
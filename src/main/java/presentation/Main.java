@@ -2,68 +2,275 @@ package presentation;
 
 import datasource.DataLoader;
 import datasource.AsmConverter;
-import datasource.DataModelConverter;
+import datasource.ClassCache;
+import datasource.ContextSnapshot;
+import datasource.IncrementalContextBuilder;
+import datasource.LoadError;
 import domain.LintEngine;
-import domain.Violation;
+import domain.PipelineProfile;
+import domain.ViolationSink;
 import domain.internal_representation.Context;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Main entry point for the Linter application. deals with the whole flow
  */
 public class Main {
 
+    private static final long CACHE_SIZE_BYTES = 512L * 1024 * 1024;
+
     public static void main(String[] args) {
 
+        CommandLineOptions options;
+        try {
+            options = CommandLineOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        String cacheDirectory = options.getCacheDirectory();
+        boolean watch = options.isWatch();
+
+        // A machine-readable report on the console must not be mixed with progress messages
+        PrintStream reportStream = System.out;
+        if (options.getFormat() != ReportFormat.TEXT && options.getOutput() == null) {
+            System.setOut(System.err);
+        }
+
+        if (options.getConnectPort() != 0) {
+            System.exit(LintClient.run(options, reportStream));
+            return;
+        }
 
-        DataModelConverter converter = new AsmConverter();
-        DataLoader loader = new DataLoader();
+        int processors = Runtime.getRuntime().availableProcessors();
+        DataLoader loader = new DataLoader(processors);
         ConsoleUI ui = new ConsoleUI();
 
         try {
-            // Step 1: Get folder path from user
-            String folderPath = ui.getFolderPath();
-            if (folderPath.isEmpty()) {
-                System.err.println("No folder path provided. Exiting.");
-                System.exit(1);
+            ClassCache cache = cacheDirectory != null ? new ClassCache(Paths.get(cacheDirectory), CACHE_SIZE_BYTES) : null;
+
+            if (options.getDaemonPort() != 0) {
+                LintDaemon daemon = new LintDaemon(options.getDaemonPort(), cache, processors);
+                daemon.setTimeouts(options.getCheckTimeoutMillis(), options.getTimeoutMillis());
+                daemon.run();
+                return;
             }
-            System.out.println("Analyzing folder: " + folderPath);
-            System.out.println();
 
-            // Step 2: Load class files
-            System.out.println("Loading class files...");
-            Map<String, byte[]> classFiles = loader.loadClassFiles(folderPath);
-            if (classFiles.isEmpty()) {
-                System.err.println("Error: No .class files found in folder: " + folderPath);
-                System.err.println("Make sure you provided the compiled classes directory, not the source (java) directory.");
+            if (options.isBatch()) {
+                int failed = runBatch(options, cache, processors, reportStream);
+                System.exit(failed > 0 ? 1 : 0);
                 return;
             }
 
-            // Step 3: Get checks from user and instantiate engine with those checks
-            String input = ui.getChecksSelectionInput();
-            LintEngine engine = new LintEngine(input);
+            AsmConverter converter = new AsmConverter(processors, cache);
+            converter.setColumnarModel(options.isCompact());
+
+            PipelineProfile profile = options.isProfile() ? new PipelineProfile() : null;
+            loader.setProfile(profile);
+            converter.setProfile(profile);
 
+            IncrementalContextBuilder builder = null;
+            LintEngine engine;
+            String folderPath;
+            Context context;
 
-            // Step 4: Build context
-            System.out.println("Converting bytecode to internal representation...");
-            Context context = converter.buildContext(classFiles, folderPath);
+            if (options.getSnapshot() != null) {
+                // Steps 1-4 are replaced by loading a saved context; only the checks are still chosen
+                String input = options.getChecks() != null ? options.getChecks() : ui.getChecksSelectionInput();
+                engine = new LintEngine(input);
+                engine.setResultCache(cache);
+                engine.setProfile(profile);
+                engine.setCheckTimeout(options.getCheckTimeoutMillis());
+                engine.setTotalTimeout(options.getTimeoutMillis());
+
+                System.out.println("Loading snapshot: " + options.getSnapshot());
+                context = ContextSnapshot.read(Paths.get(options.getSnapshot()), engine.getRequiredDepth(), options.isCompact());
+                folderPath = context.getFolderPath();
+            } else {
+                // Step 1: Get folder path from user
+                folderPath = options.getPath() != null ? options.getPath() : ui.getFolderPath();
+                if (folderPath.isEmpty()) {
+                    System.err.println("No folder path provided. Exiting.");
+                    System.exit(1);
+                }
+                if (watch && !Files.isDirectory(Paths.get(folderPath))) {
+                    System.err.println("Watch mode needs a folder of class files, not an archive. Exiting.");
+                    System.exit(1);
+                }
+                System.out.println("Analyzing folder: " + folderPath);
+                System.out.println();
+
+                // Step 2: Load class files
+                System.out.println("Loading class files...");
+                Map<String, byte[]> classFiles = loader.loadClassFiles(folderPath);
+                for (LoadError error : loader.getErrors()) {
+                    System.err.println(error);
+                }
+                if (classFiles.isEmpty()) {
+                    System.err.println("Error: No .class files found in folder: " + folderPath);
+                    System.err.println("Make sure you provided the compiled classes directory, not the source (java) directory.");
+                    return;
+                }
+
+                // Step 3: Get checks from user and instantiate engine with those checks
+                String input = options.getChecks() != null ? options.getChecks() : ui.getChecksSelectionInput();
+                engine = new LintEngine(input);
+                engine.setResultCache(cache);
+                engine.setProfile(profile);
+                engine.setCheckTimeout(options.getCheckTimeoutMillis());
+                engine.setTotalTimeout(options.getTimeoutMillis());
+
+                // Step 4: Build context
+                System.out.println("Converting bytecode to internal representation...");
+                if (watch) {
+                    builder = new IncrementalContextBuilder(converter, folderPath, engine.getRequiredDepth());
+                    context = builder.build(classFiles);
+                } else {
+                    context = converter.buildContext(classFiles, folderPath, engine.getRequiredDepth());
+                }
+                // The context reads bytecode back from disk when needed; the loaded bytes can be collected now
+                classFiles = null;
+            }
             System.out.println("Processed " + context.getClassCount() + " class(es)");
             System.out.println();
 
+            if (options.getSaveSnapshot() != null) {
+                ContextSnapshot.write(Paths.get(options.getSaveSnapshot()), context, engine.getRequiredDepth(), options.isSnapshotBytecode());
+                System.out.println("Snapshot saved to " + options.getSaveSnapshot());
+                System.out.println();
+            }
+
+            // Watch mode keeps the results of this first run, so it does not have to check everything again
+            WatchMode watchMode = watch ? new WatchMode(engine, loader, builder, folderPath, cache) : null;
+
             // Step 5: Run lint checks
             System.out.println("Running lint checks...");
-            List<Violation> violations = engine.analyzeAll(context);
-            System.out.println();
+            // Step 6: Display results via UI while the checks are still running
+            // Daemon threads, so a check abandoned for running out of time cannot keep the process alive
+            ExecutorService checkExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(processors, engine.getCheckCount())), runnable -> {
+                Thread thread = new Thread(runnable, "lint-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                if (options.getFormat() == ReportFormat.TEXT && options.getOutput() == null) {
+                    ViolationSink sink = ui.startResults();
+                    engine.analyzeAll(context, checkExecutor, watchMode != null ? watchMode.record(sink) : sink);
+                    ui.finishResults();
+                } else {
+                    writeReport(engine, context, checkExecutor, options, reportStream, watchMode);
+                }
+            } finally {
+                checkExecutor.shutdown();
+            }
 
-            // Step 6: Display results via UI
-            ui.displayResults(violations);
+            if (profile != null) {
+                // Watch mode keeps converting; the profile only covers the first run
+                engine.setProfile(null);
+                converter.setProfile(null);
+                writeProfile(profile, options.getProfileOutput());
+            }
+
+            if (cache != null) {
+                cache.flush();
+                System.out.println("Cache: " + cache.getHits() + " hit(s), " + cache.getMisses() + " miss(es)");
+            }
+
+            // Step 7: Optionally keep watching for changes
+            if (watchMode != null) {
+                watchMode.initialize();
+                watchMode.run();
+            }
         } catch (IOException e) {
             System.err.println("Error during execution: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lints every root given on the command line or in the manifest with one engine; each root gets a converter of its own.
+     * Returns the number of roots that failed.
+     */
+    private static int runBatch(CommandLineOptions options, ClassCache cache, int processors, PrintStream console) throws IOException {
+        List<String> roots = options.getRoots();
+        if (options.getManifest() != null) {
+            roots.addAll(BatchRunner.readManifest(Paths.get(options.getManifest())));
+        }
+        if (roots.isEmpty()) {
+            System.err.println("No roots to lint in batch mode. Exiting.");
+            return 1;
+        }
+
+        LintEngine engine = new LintEngine(options.getChecks());
+        engine.setResultCache(cache);
+        engine.setCheckTimeout(options.getCheckTimeoutMillis());
+        engine.setTotalTimeout(options.getTimeoutMillis());
+
+        // Roots run side by side, so each one gets a share of the processors for loading and converting
+        int jobs = options.getJobs() > 0 ? options.getJobs() : Math.min(processors, roots.size());
+        int parallelism = Math.max(1, processors / jobs);
+        Path outputFolder = options.getOutput() != null ? Paths.get(options.getOutput()) : null;
+        BatchRunner runner = new BatchRunner(engine, () -> {
+            AsmConverter converter = new AsmConverter(parallelism, cache);
+            converter.setColumnarModel(options.isCompact());
+            return converter;
+        }, jobs, parallelism, options.getFormat(), outputFolder, console);
+        int failed = runner.run(roots);
+
+        if (cache != null) {
+            cache.flush();
+            System.out.println("Cache: " + cache.getHits() + " hit(s), " + cache.getMisses() + " miss(es)");
+        }
+        return failed;
+    }
+
+    private static void writeProfile(PipelineProfile profile, String profileOutput) throws IOException {
+        System.out.println();
+        if (profileOutput == null) {
+            ProfileReport.printTable(profile, System.out);
+            return;
+        }
+        try (Writer out = Files.newBufferedWriter(Paths.get(profileOutput), StandardCharsets.UTF_8)) {
+            ProfileReport.writeJson(profile, out);
+        }
+        System.out.println("Profile written to " + profileOutput);
+    }
+
+    /**
+     * Streams the report in the selected format to the output file, or to the console if none was given.
+     * The violations are also recorded for watch mode, if it is on.
+     */
+    private static void writeReport(LintEngine engine, Context context, ExecutorService executor,
+                                    CommandLineOptions options, PrintStream console, WatchMode watchMode) throws IOException {
+        OutputStream stream = options.getOutput() != null ? Files.newOutputStream(Paths.get(options.getOutput())) : console;
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), ConsoleResultsRenderer.BUFFER_SIZE);
+        try {
+            ReportWriter report = ReportWriter.create(options.getFormat(), out, engine.getChecks());
+            engine.analyzeAll(context, executor, watchMode != null ? watchMode.record(report) : report);
+            report.finish();
+        } finally {
+            if (options.getOutput() != null) {
+                out.close();
+            }
+        }
+        if (options.getOutput() != null) {
+            System.out.println("Report written to " + options.getOutput());
+        }
+    }
+}
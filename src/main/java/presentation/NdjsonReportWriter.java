@@ -0,0 +1,63 @@
+package presentation;
+
+import domain.Violation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON object per line for each violation (newline-delimited JSON), e.g.
+ * {"check":"Naming Convention Check","class":"Product","qualifiedName":"com.example.Product","message":"..."}
+ * "class" is the simple name for display; "qualifiedName" identifies the class, and is left out for
+ * violations that are not about one class. In batch runs each line also names the root it came from.
+ */
+class NdjsonReportWriter implements ReportWriter {
+
+    private final Writer out;
+    private final String root;
+
+    NdjsonReportWriter(Writer out) {
+        this(out, null);
+    }
+
+    /**
+     * Adds a "root" field with the given value to every line, unless it is null.
+     */
+    NdjsonReportWriter(Writer out, String root) {
+        this.out = out;
+        this.root = root;
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        try {
+            out.write('{');
+            if (root != null) {
+                JsonOutput.writeField(out, "root", root);
+                out.write(',');
+            }
+            JsonOutput.writeField(out, "check", violation.getCheckName());
+            out.write(',');
+            JsonOutput.writeField(out, "class", violation.getClassName());
+            out.write(',');
+            if (violation.getQualifiedName() != null) {
+                JsonOutput.writeField(out, "qualifiedName", violation.getQualifiedName());
+                out.write(',');
+            }
+            JsonOutput.writeField(out, "message", violation.getMessage());
+            out.write("}\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package presentation;
+
+import domain.PipelineProfile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prints a PipelineProfile as a table on the console, or writes it as JSON for tools and CI dashboards.
+ */
+final class ProfileReport {
+
+    private ProfileReport() {
+    }
+
+    static void printTable(PipelineProfile profile, PrintStream out) {
+        out.println("===========================================");
+        out.println("  Profile");
+        out.println("===========================================");
+        out.println(String.format("%-36s %10s %10s %12s %12s %14s %12s", "Stage", "Wall ms", "CPU ms", "Allocated", "Items", "Elements", "Items/s"));
+        for (PipelineProfile.Stage stage : profile.getStages()) {
+            out.println(String.format(Locale.ROOT, "%-36s %10.1f %10s %12s %12s %14s %12.0f",
+                    stage.getName(),
+                    stage.getWallNanos() / 1e6,
+                    stage.getCpuNanos() < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", stage.getCpuNanos() / 1e6),
+                    formatBytes(stage.getAllocatedBytes()),
+                    stage.getItems() + " " + stage.getItemUnit(),
+                    stage.getElements() + " " + stage.getElementUnit(),
+                    stage.getItemsPerSecond()));
+        }
+        out.println("CPU time and allocations include the worker threads of each stage.");
+    }
+
+    /**
+     * Writes {"stages":[{"name", "wallNanos", "cpuNanos", "allocatedBytes", "items", "itemUnit", "elements", "elementUnit", "itemsPerSecond"}, ...]}.
+     * cpuNanos and allocatedBytes are -1 when the JVM cannot measure them.
+     */
+    static void writeJson(PipelineProfile profile, Writer out) throws IOException {
+        out.write("{\"stages\":[");
+        List<PipelineProfile.Stage> stages = profile.getStages();
+        for (int i = 0; i < stages.size(); i++) {
+            PipelineProfile.Stage stage = stages.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("\n  {");
+            JsonOutput.writeField(out, "name", stage.getName());
+            out.write(",\"wallNanos\":" + stage.getWallNanos());
+            out.write(",\"cpuNanos\":" + stage.getCpuNanos());
+            out.write(",\"allocatedBytes\":" + stage.getAllocatedBytes());
+            out.write(",\"items\":" + stage.getItems() + ",");
+            JsonOutput.writeField(out, "itemUnit", stage.getItemUnit());
+            out.write(",\"elements\":" + stage.getElements() + ",");
+            JsonOutput.writeField(out, "elementUnit", stage.getElementUnit());
+            out.write(String.format(Locale.ROOT, ",\"itemsPerSecond\":%.1f}", stage.getItemsPerSecond()));
+        }
+        out.write("\n]}\n");
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "n/a";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
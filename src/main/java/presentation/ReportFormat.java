@@ -0,0 +1,10 @@
+package presentation;
+
+/**
+ * The formats lint results can be written in.
+ */
+enum ReportFormat {
+    TEXT,
+    NDJSON,
+    SARIF
+}
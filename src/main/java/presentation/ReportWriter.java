@@ -0,0 +1,31 @@
+package presentation;
+
+import domain.LintCheck;
+import domain.ViolationSink;
+
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes violations out as they arrive. finish() completes the report once all violations have been received.
+ * Writers never keep the violations themselves, so memory use does not grow with the size of the report.
+ */
+interface ReportWriter extends ViolationSink {
+
+    void finish();
+
+    /**
+     * A writer for the given format. The checks are those that will report, in their selected order.
+     */
+    static ReportWriter create(ReportFormat format, Writer out, List<LintCheck> checks) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonReportWriter(out);
+            case SARIF:
+                return new SarifReportWriter(out, checks);
+            case TEXT:
+            default:
+                return new ConsoleResultsRenderer(out);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package presentation;
+
+import domain.LintCheck;
+import domain.Violation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a SARIF 2.1.0 log with a single run. The tool section, with one rule per selected check,
+ * is written up front; each violation is then appended to the results array as it arrives,
+ * and finish() closes the document. Results are located by the class's fully qualified name.
+ * Violations that are not about a class, such as the marker of a check that ran out of time,
+ * are not results: finish() writes them as notifications of the run's invocation.
+ */
+class SarifReportWriter implements ReportWriter {
+
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+    private final Writer out;
+    private final Map<String, Integer> ruleIndexByCheckName = new HashMap<>();
+    private final Map<String, String> ruleIdByCheckName = new HashMap<>();
+    private final List<Violation> notifications = new ArrayList<>();
+    private boolean firstResult = true;
+
+    SarifReportWriter(Writer out, List<LintCheck> checks) {
+        this.out = out;
+        // A check selected twice is still one rule
+        List<LintCheck> rules = new ArrayList<>();
+        for (LintCheck check : checks) {
+            if (!ruleIndexByCheckName.containsKey(check.getName())) {
+                ruleIndexByCheckName.put(check.getName(), rules.size());
+                ruleIdByCheckName.put(check.getName(), check.getClass().getSimpleName());
+                rules.add(check);
+            }
+        }
+
+        try {
+            out.write("{");
+            JsonOutput.writeField(out, "$schema", SCHEMA);
+            out.write(",");
+            JsonOutput.writeField(out, "version", "2.1.0");
+            out.write(",\"runs\":[{\"tool\":{\"driver\":{");
+            JsonOutput.writeField(out, "name", "Java Linter");
+            out.write(",\"rules\":[");
+            for (int i = 0; i < rules.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write('{');
+                JsonOutput.writeField(out, "id", rules.get(i).getClass().getSimpleName());
+                out.write(',');
+                JsonOutput.writeField(out, "name", rules.get(i).getName());
+                out.write(",\"shortDescription\":{");
+                JsonOutput.writeField(out, "text", rules.get(i).getDescription());
+                out.write("}}");
+            }
+            out.write("]}},\"results\":[\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(Violation violation) {
+        if (violation.getQualifiedName() == null) {
+            notifications.add(violation);
+            return;
+        }
+        try {
+            if (!firstResult) {
+                out.write(",\n");
+            }
+            firstResult = false;
+
+            out.write('{');
+            writeRule(violation, "ruleId", "ruleIndex");
+            out.write(',');
+            JsonOutput.writeField(out, "level", "warning");
+            out.write(",\"message\":{");
+            JsonOutput.writeField(out, "text", violation.getMessage());
+            out.write("},\"locations\":[{\"logicalLocations\":[{");
+            JsonOutput.writeField(out, "name", violation.getClassName());
+            out.write(',');
+            JsonOutput.writeField(out, "fullyQualifiedName", violation.getQualifiedName());
+            out.write(',');
+            JsonOutput.writeField(out, "kind", "type");
+            out.write("}]}]}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            out.write("\n],\"invocations\":[{\"executionSuccessful\":true,\"toolExecutionNotifications\":[");
+            for (int i = 0; i < notifications.size(); i++) {
+                Violation notification = notifications.get(i);
+                out.write(i > 0 ? ",\n{" : "\n{");
+                out.write("\"associatedRule\":{");
+                writeRule(notification, "id", "index");
+                out.write("},");
+                JsonOutput.writeField(out, "level", "warning");
+                out.write(",\"message\":{");
+                JsonOutput.writeField(out, "text", notification.getMessage());
+                out.write("}}");
+            }
+            out.write("]}]}]}\n");
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the id of the violation's rule, and its index in the rules array if the check is one of them.
+     */
+    private void writeRule(Violation violation, String idField, String indexField) throws IOException {
+        JsonOutput.writeField(out, idField, ruleIdByCheckName.getOrDefault(violation.getCheckName(), violation.getCheckName()));
+        Integer ruleIndex = ruleIndexByCheckName.get(violation.getCheckName());
+        if (ruleIndex != null) {
+            out.write(",\"" + indexField + "\":" + ruleIndex);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package presentation;
+
+import datasource.ClassCache;
+import datasource.DataLoader;
+import datasource.IncrementalContextBuilder;
+import datasource.LoadError;
+import domain.LintCheck;
+import domain.LintEngine;
+import domain.PerClassLintCheck;
+import domain.PerClassResultCache;
+import domain.Violation;
+import domain.ViolationSink;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.Context;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the context in memory and re-lints whenever class files in the folder change.
+ * Only changed files are converted and re-checked by the per-class checks;
+ * checks over the whole codebase are re-run on the patched context.
+ * The results of the first full run are recorded through record(), so they do not have to be computed twice.
+ */
+class WatchMode {
+
+    // Compilers write many files in a burst; wait this long for the burst to settle
+    private static final long SETTLE_MILLIS = 30;
+
+    private final LintEngine engine;
+    private final DataLoader loader;
+    private final IncrementalContextBuilder builder;
+    private final Path folder;
+    private final ClassCache cache;
+    private final Set<String> programCheckNames = new HashSet<>();
+    private InitialRun initialRun;
+
+    private final Map<String, List<Violation>> classViolations = new TreeMap<>();
+    private List<Violation> programViolations = new ArrayList<>();
+
+    /**
+     * Takes over the engine's result cache, which may be null, to record the per-class results of the first run.
+     */
+    WatchMode(LintEngine engine, DataLoader loader, IncrementalContextBuilder builder, String folderPath, ClassCache cache) {
+        this.engine = engine;
+        this.loader = loader;
+        this.builder = builder;
+        this.folder = Paths.get(folderPath);
+        this.cache = cache;
+        for (LintCheck check : engine.getChecks()) {
+            if (!(check instanceof PerClassLintCheck)) {
+                programCheckNames.add(check.getName());
+            }
+        }
+        this.initialRun = new InitialRun(cache);
+        engine.setResultCache(initialRun);
+    }
+
+    /**
+     * Wraps the sink of the first full run, so the violations of the checks over the whole codebase are kept too.
+     */
+    ViolationSink record(ViolationSink sink) {
+        return new ViolationSink() {
+            @Override
+            public void accept(Violation violation) {
+                if (programCheckNames.contains(violation.getCheckName())) {
+                    initialRun.programViolations.add(violation);
+                }
+                sink.accept(violation);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return sink.isCancelled();
+            }
+        };
+    }
+
+    /**
+     * Takes over the results of the first run for the context the builder currently holds; call once before run().
+     * Classes the first run did not get to, e.g. because it ran out of time, are checked now.
+     */
+    void initialize() {
+        for (String path : builder.getChangedPaths()) {
+            ClassInfo classInfo = builder.getClassInfo(path);
+            if (classInfo != null) {
+                classViolations.put(path, engine.analyzeClass(classInfo));
+            }
+        }
+        programViolations = initialRun.programViolations;
+        initialRun = null;
+        engine.setResultCache(cache);
+    }
+
+    /**
+     * Blocks, re-linting on every change, until the thread is interrupted.
+     */
+    void run() throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> directories = new HashMap<>();
+            registerAll(folder, watchService, directories);
+
+            System.out.println("Watching " + folder + " for changes (Ctrl+C to stop)...");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> touched = new TreeSet<>();
+                WatchKey key = watchService.take();
+                long start = System.nanoTime();
+
+                // Drain the burst of events, waiting briefly for more before re-linting
+                while (key != null) {
+                    collectEvents(key, directories, watchService, touched);
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                if (!touched.isEmpty()) {
+                    relint(touched, start);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void collectEvents(WatchKey key, Map<WatchKey, Path> directories, WatchService watchService, Set<Path> touched) throws IOException {
+        Path directory = directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost: look at every class file, including ones that may have been deleted
+                registerAll(folder, watchService, directories);
+                try (Stream<Path> paths = Files.walk(folder)) {
+                    touched.addAll(paths.filter(this::isClassFile).collect(Collectors.toList()));
+                }
+                for (String path : builder.getPaths()) {
+                    touched.add(Paths.get(path));
+                }
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // New package directory: watch it too, and pick up anything already written into it
+                registerAll(path, watchService, directories);
+                try (Stream<Path> paths = Files.walk(path)) {
+                    touched.addAll(paths.filter(this::isClassFile).collect(Collectors.toList()));
+                }
+            } else if (isClassFile(path)) {
+                touched.add(path);
+            }
+        }
+
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    private void relint(Set<Path> touched, long start) {
+        List<Path> existing = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (Path path : touched) {
+            if (Files.isRegularFile(path)) {
+                existing.add(path);
+            } else {
+                removed.add(path.toString());
+            }
+        }
+
+        Map<String, byte[]> changedFiles = loader.loadClassFiles(existing);
+        for (LoadError error : loader.getErrors()) {
+            System.err.println(error);
+        }
+
+        Context context = builder.update(changedFiles, removed);
+        for (LoadError error : builder.getErrors()) {
+            System.err.println(error);
+        }
+
+        List<String> changedPaths = builder.getChangedPaths();
+        recheck(context, changedPaths);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("===========================================");
+        System.out.println(changedPaths.size() + " class file(s) changed, re-linted in " + elapsedMillis + " ms");
+        for (String path : changedPaths) {
+            for (Violation violation : classViolations.getOrDefault(path, new ArrayList<>())) {
+                System.out.println("  " + violation);
+            }
+        }
+        for (Violation violation : programViolations) {
+            System.out.println("  " + violation);
+        }
+        System.out.println("Total: " + countViolations() + " violation(s) in " + context.getClassCount() + " class(es)");
+
+        // Entries are held only while their classes are, so the new versions are written before they can be replaced
+        if (cache != null) {
+            try {
+                cache.flush();
+            } catch (IOException e) {
+                System.err.println("Could not write the cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private void recheck(Context context, List<String> changedPaths) {
+        for (String path : changedPaths) {
+            ClassInfo classInfo = builder.getClassInfo(path);
+            if (classInfo == null) {
+                classViolations.remove(path);
+            } else {
+                classViolations.put(path, engine.analyzeClass(classInfo));
+            }
+        }
+        programViolations = engine.analyzeProgram(context);
+    }
+
+    /**
+     * Per-class results of the first run, by class; lookups the first run did not record go to the real cache.
+     */
+    private static class InitialRun implements PerClassResultCache {
+        private final PerClassResultCache cache;
+        private final Map<ClassInfo, Map<PerClassLintCheck, List<Violation>>> results = new ConcurrentHashMap<>();
+        private final List<Violation> programViolations = new ArrayList<>();
+
+        InitialRun(PerClassResultCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public List<Violation> getViolations(ClassInfo classInfo, PerClassLintCheck check) {
+            Map<PerClassLintCheck, List<Violation>> classResults = results.get(classInfo);
+            List<Violation> violations = classResults != null ? classResults.get(check) : null;
+            if (violations == null && cache != null) {
+                violations = cache.getViolations(classInfo, check);
+            }
+            return violations;
+        }
+
+        @Override
+        public void putViolations(ClassInfo classInfo, PerClassLintCheck check, List<Violation> violations) {
+            results.computeIfAbsent(classInfo, key -> new ConcurrentHashMap<>()).put(check, new ArrayList<>(violations));
+            if (cache != null) {
+                cache.putViolations(classInfo, check, violations);
+            }
+        }
+    }
+
+    private int countViolations() {
+        int count = programViolations.size();
+        for (List<Violation> violations : classViolations.values()) {
+            count += violations.size();
+        }
+        return count;
+    }
+
+    private void registerAll(Path root, WatchService watchService, Map<WatchKey, Path> directories) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path directory : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                WatchKey key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, directory);
+            }
+        }
+    }
+
+    private boolean isClassFile(Path path) {
+        return path.toString().endsWith(".class");
+    }
+}
@@ -0,0 +1,121 @@
+package datasource;
+
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.DependencyType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsmConverterTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, byte[]> classFiles = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() {
+        // Two classes named Foo in different packages, and a third class that holds one of each
+        classFiles.put("a/Foo.class", createClass("a/Foo", "b/Foo"));
+        classFiles.put("b/Foo.class", createClass("b/Foo"));
+        classFiles.put("c/Bar.class", createClass("c/Bar", "a/Foo", "b/Foo"));
+    }
+
+    @Test
+    public void sameSimpleNameInDifferentPackagesGivesTwoClasses() {
+        Context context = new AsmConverter(1, null).buildContext(classFiles, "classes", AnalysisDepth.MEMBERS);
+
+        assertEquals(3, context.getClassCount());
+        ClassInfo first = context.getClasses().get(0);
+        ClassInfo second = context.getClasses().get(1);
+        assertEquals("a.Foo", first.getQualifiedName());
+        assertEquals("b.Foo", second.getQualifiedName());
+        assertEquals("Foo", first.getName());
+        assertEquals("Foo", second.getName());
+        assertNotEquals(first.getNameId(), second.getNameId());
+
+        // The field keeps its simple type name for display, but its id names the right class
+        assertEquals("Foo", first.getFields().get(0).getType());
+        assertEquals("b.Foo", context.getSymbolTable().getName(first.getFields().get(0).getTypeId()));
+    }
+
+    @Test
+    public void graphHasANodePerQualifiedName() {
+        DependencyInfo graph = new AsmConverter(1, null).buildContext(classFiles, "classes", AnalysisDepth.MEMBERS).getDependencyInfo();
+
+        assertEquals(3, graph.getSize());
+        assertEquals(0, graph.getClassIndex("a.Foo"));
+        assertEquals(1, graph.getClassIndex("b.Foo"));
+        assertEquals(-1, graph.getClassIndex("Foo"));
+
+        assertEquals(DependencyType.HAS_A, graph.getDependency("a.Foo", "b.Foo"));
+        assertEquals(DependencyType.NONE, graph.getDependency("b.Foo", "a.Foo"));
+        assertEquals(DependencyType.HAS_A, graph.getDependency("c.Bar", "a.Foo"));
+        assertEquals(DependencyType.HAS_A, graph.getDependency("c.Bar", "b.Foo"));
+        assertEquals(2, graph.getSuccessorCount(graph.getClassIndex("c.Bar")));
+        assertEquals(2, graph.getPredecessorCount(graph.getClassIndex("b.Foo")));
+        assertEquals(3, graph.getEdgeCount());
+    }
+
+    @Test
+    public void bytecodeIsLookedUpByQualifiedName() throws IOException {
+        // Bytecode is read back from the class files, so they have to be on disk
+        for (Map.Entry<String, byte[]> file : classFiles.entrySet()) {
+            Path path = directory.resolve(file.getKey());
+            Files.createDirectories(path.getParent());
+            Files.write(path, file.getValue());
+        }
+        Map<String, byte[]> loaded = new DataLoader(1).loadClassFiles(directory.toString());
+        Context context = new AsmConverter(1, null).buildContext(loaded, directory.toString(), AnalysisDepth.MEMBERS);
+
+        assertEquals("a/Foo", new ClassReader(context.getClassBytecode("a.Foo")).getClassName());
+        assertEquals("b/Foo", new ClassReader(context.getClassBytecode("b.Foo")).getClassName());
+        assertNull(context.getClassBytecode("Foo"));
+    }
+
+    @Test
+    public void parallelConversionKeepsTheClassesApart() {
+        // Enough classes to be split across threads, every simple name used in two packages
+        Map<String, byte[]> files = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            files.put("a/C" + i + ".class", createClass("a/C" + i, "b/C" + i));
+            files.put("b/C" + i + ".class", createClass("b/C" + i));
+        }
+
+        DependencyInfo graph = new AsmConverter(4, null).buildContext(files, "classes", AnalysisDepth.MEMBERS).getDependencyInfo();
+
+        assertEquals(4000, graph.getSize());
+        assertEquals(2000, graph.getEdgeCount());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(DependencyType.HAS_A, graph.getDependency("a.C" + i, "b.C" + i));
+            assertEquals(DependencyType.NONE, graph.getDependency("b.C" + i, "a.C" + i));
+        }
+    }
+
+    /**
+     * A class with one private field of each of the given types.
+     */
+    private static byte[] createClass(String internalName, String... fieldTypes) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+        for (int i = 0; i < fieldTypes.length; i++) {
+            writer.visitField(Opcodes.ACC_PRIVATE, "field" + i, "L" + fieldTypes[i] + ";", null, null).visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
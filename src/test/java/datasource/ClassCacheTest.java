@@ -0,0 +1,164 @@
+package datasource;
+
+import domain.NamingConventionCheck;
+import domain.PublicMutableFieldsCheck;
+import domain.Violation;
+import domain.internal_representation.ClassInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassCacheTest {
+
+    private static final long MAX_BYTES = 1 << 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void convertedClassIsReusedAfterFlush() throws IOException {
+        byte[] bytes = readClass(Sample.class);
+
+        ClassCache first = new ClassCache(directory, MAX_BYTES);
+        ClassInfo converted = new AsmConverter(1, first).convertClass(bytes);
+        first.flush();
+        assertEquals(0, first.getHits());
+        assertEquals(1, first.getMisses());
+
+        ClassCache second = new ClassCache(directory, MAX_BYTES);
+        ClassInfo cached = new AsmConverter(1, second).convertClass(bytes);
+        assertEquals(1, second.getHits());
+        assertEquals(0, second.getMisses());
+        assertEquals(converted.getName(), cached.getName());
+        assertEquals(converted.getFields().size(), cached.getFields().size());
+        assertEquals(converted.getMethods().size(), cached.getMethods().size());
+    }
+
+    @Test
+    public void violationsAreReusedForTheSameCheck() throws IOException {
+        byte[] bytes = readClass(Sample.class);
+        PublicMutableFieldsCheck check = new PublicMutableFieldsCheck();
+        List<Violation> violations = Collections.singletonList(new Violation(check.getName(), "Sample", "Field 'count' is public and mutable"));
+
+        ClassCache first = new ClassCache(directory, MAX_BYTES);
+        ClassInfo converted = new AsmConverter(1, first).convertClass(bytes);
+        assertNull(first.getViolations(converted, check));
+        first.putViolations(converted, check, violations);
+        first.flush();
+
+        ClassCache second = new ClassCache(directory, MAX_BYTES);
+        ClassInfo cached = new AsmConverter(1, second).convertClass(bytes);
+        List<Violation> reused = second.getViolations(cached, check);
+        assertNotNull(reused);
+        assertEquals(1, reused.size());
+        assertEquals(check.getName(), reused.get(0).getCheckName());
+        assertEquals("Sample", reused.get(0).getClassName());
+        assertEquals("Field 'count' is public and mutable", reused.get(0).getMessage());
+
+        assertNull(second.getViolations(cached, new NamingConventionCheck()));
+    }
+
+    @Test
+    public void changedBytecodeIsAMiss() throws IOException {
+        ClassCache first = new ClassCache(directory, MAX_BYTES);
+        new AsmConverter(1, first).convertClass(readClass(Sample.class));
+        first.flush();
+
+        ClassCache second = new ClassCache(directory, MAX_BYTES);
+        new AsmConverter(1, second).convertClass(readClass(OtherSample.class));
+        assertEquals(0, second.getHits());
+        assertEquals(1, second.getMisses());
+    }
+
+    @Test
+    public void differentParsingOptionsAreAMiss() throws IOException {
+        byte[] bytes = readClass(Sample.class);
+        ClassCache first = new ClassCache(directory, MAX_BYTES);
+        new AsmConverter(1, first).convertClass(bytes, ClassReader.EXPAND_FRAMES);
+        first.flush();
+
+        ClassCache second = new ClassCache(directory, MAX_BYTES);
+        new AsmConverter(1, second).convertClass(bytes, ClassReader.SKIP_CODE);
+        assertEquals(0, second.getHits());
+        assertEquals(1, second.getMisses());
+    }
+
+    @Test
+    public void damagedEntryIsAMissAndIsDeleted() throws IOException {
+        byte[] bytes = readClass(Sample.class);
+        ClassCache first = new ClassCache(directory, MAX_BYTES);
+        new AsmConverter(1, first).convertClass(bytes);
+        first.flush();
+
+        List<Path> files = listEntries();
+        assertEquals(1, files.size());
+        Files.write(files.get(0), new byte[]{1, 2, 3});
+
+        ClassCache second = new ClassCache(directory, MAX_BYTES);
+        assertNotNull(new AsmConverter(1, second).convertClass(bytes));
+        assertEquals(0, second.getHits());
+        assertEquals(1, second.getMisses());
+        assertTrue(listEntries().isEmpty());
+    }
+
+    @Test
+    public void checkKeyFollowsTheCheckBytecode() {
+        String key = ClassCache.computeCheckKey(PublicMutableFieldsCheck.class);
+        assertTrue(key.startsWith(PublicMutableFieldsCheck.class.getName() + "@"));
+        assertEquals(key, ClassCache.computeCheckKey(PublicMutableFieldsCheck.class));
+
+        String other = ClassCache.computeCheckKey(NamingConventionCheck.class);
+        assertNotEquals(key.substring(key.indexOf('@')), other.substring(other.indexOf('@')));
+    }
+
+    @Test
+    public void evictionKeepsTheCacheWithinItsLimit() throws IOException {
+        ClassCache cache = new ClassCache(directory, 1);
+        AsmConverter converter = new AsmConverter(1, cache);
+        converter.convertClass(readClass(Sample.class));
+        converter.convertClass(readClass(OtherSample.class));
+        cache.flush();
+
+        assertTrue(listEntries().isEmpty());
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] readClass(Class<?> type) throws IOException {
+        String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            return in.readAllBytes();
+        }
+    }
+
+    static class Sample {
+        public int count;
+
+        int next() {
+            return ++count;
+        }
+    }
+
+    static class OtherSample {
+        private final String name = "other";
+
+        String getName() {
+            return name;
+        }
+    }
+}
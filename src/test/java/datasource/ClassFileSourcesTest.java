@@ -0,0 +1,97 @@
+package datasource;
+
+import domain.internal_representation.BytecodeSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileSourcesTest {
+
+    private static final byte[] ORDER = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1};
+    private static final byte[] INVOICE = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 2};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void fileIsReadAgain() throws IOException {
+        Path file = directory.resolve("Order.class");
+        Files.write(file, ORDER);
+
+        BytecodeSource source = ClassFileSources.forRoot(directory.toString()).apply(file.toString(), ORDER);
+
+        assertArrayEquals(ORDER, source.read());
+    }
+
+    @Test
+    public void changedFileIsRejected() throws IOException {
+        Path file = directory.resolve("Order.class");
+        Files.write(file, ORDER);
+        BytecodeSource source = ClassFileSources.forRoot(directory.toString()).apply(file.toString(), ORDER);
+
+        // Same length, different content
+        Files.write(file, INVOICE);
+        UncheckedIOException changed = assertThrows(UncheckedIOException.class, source::read);
+        assertTrue(changed.getMessage().contains("changed since it was loaded"));
+
+        Files.delete(file);
+        assertThrows(UncheckedIOException.class, source::read);
+    }
+
+    @Test
+    public void archiveEntriesAreReadAgain() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("p/Order.class", ORDER);
+        entries.put("BOOT-INF/lib/lib.jar", zip(Map.of("q/Invoice.class", INVOICE, "q/Order.class", ORDER)));
+        Path archive = directory.resolve("app.jar");
+        Files.write(archive, zip(entries));
+
+        BiFunction<String, byte[], BytecodeSource> sources = ClassFileSources.forRoot(archive.toString());
+        String prefix = archive + "!/";
+
+        assertArrayEquals(ORDER, sources.apply(prefix + "p/Order.class", ORDER).read());
+        BytecodeSource invoice = sources.apply(prefix + "BOOT-INF/lib/lib.jar!/q/Invoice.class", INVOICE);
+        BytecodeSource order = sources.apply(prefix + "BOOT-INF/lib/lib.jar!/q/Order.class", ORDER);
+        assertArrayEquals(INVOICE, invoice.read());
+        assertArrayEquals(ORDER, order.read());
+
+        // What a caller does with its copy does not affect later reads
+        invoice.read()[0] = 0;
+        assertArrayEquals(INVOICE, invoice.read());
+    }
+
+    @Test
+    public void changedNestedEntryIsRejected() throws IOException {
+        Path archive = directory.resolve("app.jar");
+        Files.write(archive, zip(Map.of("BOOT-INF/lib/lib.jar", zip(Map.of("q/Invoice.class", INVOICE)))));
+
+        BytecodeSource source = ClassFileSources.forRoot(archive.toString())
+                .apply(archive + "!/BOOT-INF/lib/lib.jar!/q/Invoice.class", ORDER);
+
+        assertThrows(UncheckedIOException.class, source::read);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,205 @@
+package datasource;
+
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.ClassInfo;
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.FieldInfo;
+import domain.internal_representation.LocalVariableInfo;
+import domain.internal_representation.MethodInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContextSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path classes;
+    private Path snapshot;
+    private Context context;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        classes = directory.resolve("classes");
+        snapshot = directory.resolve("context.snapshot");
+        // Two classes share the simple name Order, and a.Order and b.Order depend on each other
+        writeClass("a/Order", "java/lang/Object", new String[] {"java/io/Serializable"}, "b/Order");
+        writeClass("b/Order", "a/Order", new String[0], "a/Order");
+        writeClass("b/Invoice", "java/lang/Object", new String[0], "a/Order", "b/Order");
+
+        Map<String, byte[]> classFiles = new DataLoader(1).loadClassFiles(classes.toString());
+        context = new AsmConverter(1, null).buildContext(classFiles, classes.toString(), AnalysisDepth.INSTRUCTIONS);
+    }
+
+    @Test
+    public void roundTripKeepsClassesAndGraph() throws IOException {
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.INSTRUCTIONS, false);
+        Context loaded = ContextSnapshot.read(snapshot, AnalysisDepth.INSTRUCTIONS);
+
+        assertSameContext(context, loaded);
+        assertNull(loaded.getClassBytecode("a.Order"));
+    }
+
+    @Test
+    public void roundTripIntoColumnsKeepsClassesAndGraph() throws IOException {
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.INSTRUCTIONS, false);
+
+        assertSameContext(context, ContextSnapshot.read(snapshot, AnalysisDepth.INSTRUCTIONS, true));
+    }
+
+    @Test
+    public void namesOutsideAsciiSurviveTheRoundTrip() throws IOException {
+        // Two- and three-byte characters, and a supplementary character stored as a surrogate pair
+        Map<String, byte[]> classFiles = new DataLoader(1).loadClassFiles(classes.toString());
+        classFiles.put("c/Stück中𝔸.class", createClass("c/Stück中𝔸", "java/lang/Object", new String[0], "a/Order"));
+        context = new AsmConverter(1, null).buildContext(classFiles, classes.toString(), AnalysisDepth.INSTRUCTIONS);
+
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.INSTRUCTIONS, false);
+        Context loaded = ContextSnapshot.read(snapshot, AnalysisDepth.INSTRUCTIONS);
+
+        assertSameContext(context, loaded);
+        assertTrue(loaded.getDependencyInfo().getClassIndex("c.Stück中𝔸") >= 0);
+    }
+
+    @Test
+    public void bytecodeIsKeptWhenIncluded() throws IOException {
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.INSTRUCTIONS, true);
+        Context loaded = ContextSnapshot.read(snapshot, AnalysisDepth.MEMBERS);
+
+        for (String name : Arrays.asList("a.Order", "b.Order", "b.Invoice")) {
+            assertArrayEquals(context.getClassBytecode(name), loaded.getClassBytecode(name));
+        }
+    }
+
+    @Test
+    public void shallowerSnapshotIsRejected() throws IOException {
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.HEADER, false);
+
+        assertThrows(IOException.class, () -> ContextSnapshot.read(snapshot, AnalysisDepth.MEMBERS));
+        assertDoesNotThrow(() -> ContextSnapshot.read(snapshot, AnalysisDepth.HEADER));
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() throws IOException {
+        ContextSnapshot.write(snapshot, context, AnalysisDepth.INSTRUCTIONS, true);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(IOException.class, () -> ContextSnapshot.read(snapshot, AnalysisDepth.INSTRUCTIONS));
+    }
+
+    @Test
+    public void otherFilesAreRejected() throws IOException {
+        Files.write(snapshot, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> ContextSnapshot.read(snapshot, AnalysisDepth.HEADER));
+    }
+
+    // Ids depend on the symbol table, so everything is compared by name
+    private static void assertSameContext(Context expected, Context actual) {
+        assertEquals(expected.getFolderPath(), actual.getFolderPath());
+        assertEquals(expected.getClassCount(), actual.getClassCount());
+        for (int i = 0; i < expected.getClassCount(); i++) {
+            assertSameClass(expected.getClasses().get(i), actual.getClasses().get(i));
+            assertEquals(expected.getClasses().get(i).getQualifiedName(),
+                    actual.getSymbolTable().getName(actual.getClasses().get(i).getNameId()));
+        }
+
+        DependencyInfo expectedGraph = expected.getDependencyInfo();
+        DependencyInfo actualGraph = actual.getDependencyInfo();
+        assertEquals(expectedGraph.getSize(), actualGraph.getSize());
+        assertEquals(expectedGraph.getEdgeCount(), actualGraph.getEdgeCount());
+        for (int from = 0; from < expectedGraph.getSize(); from++) {
+            assertEquals(expectedGraph.getQualifiedClassName(from), actualGraph.getQualifiedClassName(from));
+            assertEquals(expectedGraph.getSuccessorCount(from), actualGraph.getSuccessorCount(from));
+            for (int k = 0; k < expectedGraph.getSuccessorCount(from); k++) {
+                assertEquals(expectedGraph.getSuccessor(from, k), actualGraph.getSuccessor(from, k));
+                assertEquals(expectedGraph.getSuccessorType(from, k), actualGraph.getSuccessorType(from, k));
+            }
+        }
+    }
+
+    private static void assertSameClass(ClassInfo expected, ClassInfo actual) {
+        assertEquals(expected.getQualifiedName(), actual.getQualifiedName());
+        assertEquals(expected.getSuperClass(), actual.getSuperClass());
+        assertEquals(expected.getInterfaces(), actual.getInterfaces());
+        assertEquals(expected.isPublic(), actual.isPublic());
+        assertEquals(expected.isAbstract(), actual.isAbstract());
+
+        assertEquals(expected.getFields().size(), actual.getFields().size());
+        for (int f = 0; f < expected.getFields().size(); f++) {
+            FieldInfo expectedField = expected.getFields().get(f);
+            FieldInfo actualField = actual.getFields().get(f);
+            assertEquals(expectedField.getName(), actualField.getName());
+            assertEquals(expectedField.getType(), actualField.getType());
+            assertEquals(expectedField.getVisibility(), actualField.getVisibility());
+            assertEquals(expectedField.isStatic(), actualField.isStatic());
+            assertEquals(expectedField.isFinal(), actualField.isFinal());
+        }
+
+        assertEquals(expected.getMethods().size(), actual.getMethods().size());
+        for (int m = 0; m < expected.getMethods().size(); m++) {
+            MethodInfo expectedMethod = expected.getMethods().get(m);
+            MethodInfo actualMethod = actual.getMethods().get(m);
+            assertEquals(expectedMethod.getName(), actualMethod.getName());
+            assertEquals(expectedMethod.getReturnType(), actualMethod.getReturnType());
+            assertEquals(expectedMethod.getParameterTypes(), actualMethod.getParameterTypes());
+            assertEquals(expectedMethod.getVisibility(), actualMethod.getVisibility());
+            assertEquals(expectedMethod.getLocalVariables().size(), actualMethod.getLocalVariables().size());
+            for (int l = 0; l < expectedMethod.getLocalVariables().size(); l++) {
+                LocalVariableInfo expectedLocal = expectedMethod.getLocalVariables().get(l);
+                LocalVariableInfo actualLocal = actualMethod.getLocalVariables().get(l);
+                assertEquals(expectedLocal.getName(), actualLocal.getName());
+                assertEquals(expectedLocal.getType(), actualLocal.getType());
+            }
+        }
+    }
+
+    private void writeClass(String internalName, String superName, String[] interfaces, String... types) throws IOException {
+        Path file = classes.resolve(internalName + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, createClass(internalName, superName, interfaces, types));
+    }
+
+    /**
+     * A class with one field and one method, with a local variable, per given type.
+     */
+    private static byte[] createClass(String internalName, String superName, String[] interfaces, String... types) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, superName, interfaces);
+        for (int i = 0; i < types.length; i++) {
+            String descriptor = "L" + types[i] + ";";
+            writer.visitField(Opcodes.ACC_PRIVATE, "field" + i, descriptor, null, null).visitEnd();
+
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "method" + i, "(I)" + descriptor, null, null);
+            method.visitCode();
+            Label start = new Label();
+            Label end = new Label();
+            method.visitLabel(start);
+            method.visitInsn(Opcodes.ACONST_NULL);
+            method.visitVarInsn(Opcodes.ASTORE, 2);
+            method.visitVarInsn(Opcodes.ALOAD, 2);
+            method.visitLabel(end);
+            method.visitInsn(Opcodes.ARETURN);
+            method.visitLocalVariable("value", descriptor, null, start, end, 2);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package datasource;
+
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.DependencyType;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalContextBuilderTest {
+
+    private final Map<String, byte[]> files = new TreeMap<>();
+
+    @Test
+    public void buildReportsEveryPathAsChanged() {
+        files.put("p/A.class", createClass("p/A", "p/B"));
+        files.put("p/B.class", createClass("p/B"));
+
+        IncrementalContextBuilder builder = newBuilder();
+        Context context = builder.build(files);
+
+        assertEquals(2, context.getClassCount());
+        assertEquals(Arrays.asList("p/A.class", "p/B.class"), builder.getChangedPaths());
+        assertEquals(Arrays.asList("p/A.class", "p/B.class"), builder.getPaths());
+        assertEquals("A", builder.getClassInfo("p/A.class").getName());
+        assertEquals(DependencyType.HAS_A, context.getDependencyInfo().getDependency("p.A", "p.B"));
+    }
+
+    @Test
+    public void changedClassIsRelinkedInACopy() {
+        files.put("p/A.class", createClass("p/A", "p/B"));
+        files.put("p/B.class", createClass("p/B"));
+        files.put("p/C.class", createClass("p/C"));
+        IncrementalContextBuilder builder = newBuilder();
+        DependencyInfo original = builder.build(files).getDependencyInfo();
+
+        // A now holds a C instead of a B; the set of classes stays the same
+        Map<String, byte[]> changed = changeFile("p/A.class", createClass("p/A", "p/C"));
+        Context context = builder.update(changed, Collections.emptyList());
+
+        // The previous context's graph is left as it was for anyone still reading it
+        assertNotSame(original, context.getDependencyInfo());
+        assertEquals(DependencyType.HAS_A, original.getDependency("p.A", "p.B"));
+        assertEquals(DependencyType.NONE, original.getDependency("p.A", "p.C"));
+        assertEquals(Collections.singletonList("p/A.class"), builder.getChangedPaths());
+        assertEquals(DependencyType.NONE, context.getDependencyInfo().getDependency("p.A", "p.B"));
+        assertEquals(DependencyType.HAS_A, context.getDependencyInfo().getDependency("p.A", "p.C"));
+        assertEquals(0, context.getDependencyInfo().getPredecessorCount(context.getDependencyInfo().getClassIndex("p.B")));
+        assertSameGraph(newBuilder().build(files).getDependencyInfo(), context.getDependencyInfo());
+    }
+
+    @Test
+    public void addedClassRebuildsTheGraph() {
+        files.put("p/A.class", createClass("p/A", "p/B"));
+        files.put("p/C.class", createClass("p/C"));
+        IncrementalContextBuilder builder = newBuilder();
+        DependencyInfo original = builder.build(files).getDependencyInfo();
+
+        Context context = builder.update(changeFile("p/B.class", createClass("p/B", "p/C")), Collections.emptyList());
+
+        assertNotSame(original, context.getDependencyInfo());
+        assertEquals(3, context.getClassCount());
+        assertEquals(DependencyType.HAS_A, context.getDependencyInfo().getDependency("p.A", "p.B"));
+        assertEquals(DependencyType.HAS_A, context.getDependencyInfo().getDependency("p.B", "p.C"));
+        assertSameGraph(newBuilder().build(files).getDependencyInfo(), context.getDependencyInfo());
+    }
+
+    @Test
+    public void removedClassLeavesTheContext() {
+        files.put("p/A.class", createClass("p/A", "p/B"));
+        files.put("p/B.class", createClass("p/B"));
+        IncrementalContextBuilder builder = newBuilder();
+        builder.build(files);
+
+        files.remove("p/B.class");
+        Context context = builder.update(Collections.emptyMap(), Collections.singletonList("p/B.class"));
+
+        assertEquals(1, context.getClassCount());
+        assertNull(builder.getClassInfo("p/B.class"));
+        assertEquals(Collections.singletonList("p/B.class"), builder.getChangedPaths());
+        assertEquals(-1, context.getDependencyInfo().getClassIndex("p.B"));
+        assertSameGraph(newBuilder().build(files).getDependencyInfo(), context.getDependencyInfo());
+    }
+
+    @Test
+    public void unparsableFileKeepsThePreviousVersion() {
+        files.put("p/A.class", createClass("p/A", "p/B"));
+        files.put("p/B.class", createClass("p/B"));
+        IncrementalContextBuilder builder = newBuilder();
+        builder.build(files);
+
+        Map<String, byte[]> changed = new HashMap<>();
+        changed.put("p/A.class", new byte[]{(byte) 0xCA, (byte) 0xFE});
+        Context context = builder.update(changed, Collections.emptyList());
+
+        assertEquals(1, builder.getErrors().size());
+        assertTrue(builder.getChangedPaths().isEmpty());
+        assertEquals(2, context.getClassCount());
+        assertEquals(DependencyType.HAS_A, context.getDependencyInfo().getDependency("p.A", "p.B"));
+    }
+
+    private IncrementalContextBuilder newBuilder() {
+        return new IncrementalContextBuilder(new AsmConverter(1, null), "classes", AnalysisDepth.MEMBERS);
+    }
+
+    private Map<String, byte[]> changeFile(String path, byte[] bytes) {
+        files.put(path, bytes);
+        Map<String, byte[]> changed = new HashMap<>();
+        changed.put(path, bytes);
+        return changed;
+    }
+
+    private static void assertSameGraph(DependencyInfo expected, DependencyInfo actual) {
+        assertEquals(expected.getSize(), actual.getSize());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int from = 0; from < expected.getSize(); from++) {
+            assertEquals(expected.getQualifiedClassName(from), actual.getQualifiedClassName(from));
+            for (int to = 0; to < expected.getSize(); to++) {
+                assertEquals(expected.getDependency(from, to), actual.getDependency(from, to));
+            }
+        }
+    }
+
+    /**
+     * A class with one private field of each of the given types.
+     */
+    private static byte[] createClass(String internalName, String... fieldTypes) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+        List<String> types = Arrays.asList(fieldTypes);
+        for (int i = 0; i < types.size(); i++) {
+            writer.visitField(Opcodes.ACC_PRIVATE, "field" + i, "L" + types.get(i) + ";", null, null).visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,155 @@
+package domain;
+
+import domain.internal_representation.Context;
+import domain.internal_representation.DependencyInfo;
+import domain.internal_representation.DependencyType;
+import domain.internal_representation.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircularDependencyCheckTest {
+
+    private static DependencyInfo graph(String... names) {
+        SymbolTable symbols = new SymbolTable();
+        int[] ids = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ids[i] = symbols.intern("p." + names[i]);
+        }
+        return new DependencyInfo(symbols, ids);
+    }
+
+    private static List<Violation> analyze(DependencyInfo graph) {
+        return new CircularDependencyCheck().analyze(new Context(Collections.emptyList(), graph, "", Collections.emptyMap()));
+    }
+
+    @Test
+    public void acyclicGraphHasNoViolations() {
+        DependencyInfo graph = graph("A", "B", "C");
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+        graph.setDependency(1, 2, DependencyType.GENERAL);
+        graph.setDependency(0, 2, DependencyType.IS_A);
+
+        assertTrue(analyze(graph).isEmpty());
+    }
+
+    @Test
+    public void twoClassCycleIsReportedOnce() {
+        DependencyInfo graph = graph("A", "B");
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+        graph.setDependency(1, 0, DependencyType.GENERAL);
+
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(1, violations.size());
+        assertEquals("A", violations.get(0).getClassName());
+        assertTrue(violations.get(0).getMessage().contains("among 2 class(es) (A, B): A -> B -> A"), violations.get(0).getMessage());
+    }
+
+    @Test
+    public void selfDependencyIsACycle() {
+        DependencyInfo graph = graph("A", "B");
+        graph.setDependency(1, 1, DependencyType.HAS_A);
+
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(1, violations.size());
+        assertEquals("B", violations.get(0).getClassName());
+        assertTrue(violations.get(0).getMessage().endsWith("B -> B"), violations.get(0).getMessage());
+    }
+
+    @Test
+    public void shortestCycleOfTheTangleComesFirstEvenIfItAvoidsTheFirstMember() {
+        // A -> B -> C -> D -> A, plus C <-> D
+        DependencyInfo graph = graph("A", "B", "C", "D");
+        graph.setDependency(0, 1, DependencyType.GENERAL);
+        graph.setDependency(1, 2, DependencyType.GENERAL);
+        graph.setDependency(2, 3, DependencyType.GENERAL);
+        graph.setDependency(3, 0, DependencyType.GENERAL);
+        graph.setDependency(3, 2, DependencyType.GENERAL);
+
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(1, violations.size());
+        assertEquals("C", violations.get(0).getClassName());
+        String message = violations.get(0).getMessage();
+        assertTrue(message.contains("(A, B, C, D): C -> D -> C; A -> B -> C -> D -> A"), message);
+    }
+
+    @Test
+    public void classesWithTheSameSimpleNameAreNotACycle() {
+        SymbolTable symbols = new SymbolTable();
+        DependencyInfo graph = new DependencyInfo(symbols, new int[] {symbols.intern("a.Foo"), symbols.intern("b.Foo")});
+        graph.setDependency("a.Foo", "b.Foo", DependencyType.HAS_A);
+
+        assertTrue(analyze(graph).isEmpty());
+
+        graph.setDependency("b.Foo", "a.Foo", DependencyType.GENERAL);
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(1, violations.size());
+        assertEquals("a.Foo", violations.get(0).getQualifiedName());
+        assertTrue(violations.get(0).getMessage().endsWith("Foo -> Foo -> Foo"), violations.get(0).getMessage());
+    }
+
+    @Test
+    public void separateTanglesAreReportedSeparately() {
+        DependencyInfo graph = graph("A", "B", "C", "D", "E");
+        graph.setDependency(0, 1, DependencyType.GENERAL);
+        graph.setDependency(1, 0, DependencyType.GENERAL);
+        graph.setDependency(1, 2, DependencyType.GENERAL);
+        graph.setDependency(3, 4, DependencyType.GENERAL);
+        graph.setDependency(4, 3, DependencyType.GENERAL);
+
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(2, violations.size());
+        assertTrue(violations.get(0).getMessage().contains("(A, B)"));
+        assertTrue(violations.get(1).getMessage().contains("(D, E)"));
+    }
+
+    @Test
+    public void longCycleDoesNotOverflowTheStack() {
+        int size = 50_000;
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "C" + i;
+        }
+        DependencyInfo graph = graph(names);
+        for (int i = 0; i < size; i++) {
+            graph.setDependency(i, (i + 1) % size, DependencyType.GENERAL);
+        }
+
+        List<Violation> violations = analyze(graph);
+
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).getMessage().startsWith("Circular dependency detected among " + size + " class(es)"));
+    }
+
+    @Test
+    public void cancelledSinkStopsTheSearch() {
+        DependencyInfo graph = graph("A", "B");
+        graph.setDependency(0, 1, DependencyType.GENERAL);
+        graph.setDependency(1, 0, DependencyType.GENERAL);
+        List<Violation> violations = new ArrayList<>();
+
+        new CircularDependencyCheck().analyze(new Context(Collections.emptyList(), graph, "", Collections.emptyMap()), new ViolationSink() {
+            @Override
+            public void accept(Violation violation) {
+                violations.add(violation);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        });
+
+        assertTrue(violations.isEmpty());
+    }
+}
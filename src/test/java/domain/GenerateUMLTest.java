@@ -0,0 +1,89 @@
+package domain;
+
+import datasource.AsmConverter;
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.Context;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GenerateUMLTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<String, byte[]> classFiles = new HashMap<>();
+
+    private String generate() throws IOException {
+        Context context = new AsmConverter(1, null).buildContext(classFiles, directory.toString(), AnalysisDepth.LOCAL_VARIABLES);
+        assertTrue(new GenerateUML().analyze(context).isEmpty());
+        return new String(Files.readAllBytes(directory.resolve("design.puml")), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void classesAreDeclaredWithAliasesAndLinkedByThem() throws IOException {
+        addClass("p/Order", "java/lang/Object", "p/Customer");
+        addClass("p/Customer", "java/lang/Object");
+
+        String diagram = generate();
+
+        assertTrue(diagram.contains("class \"Order\" as p_Order {\n  p\n"), diagram);
+        assertTrue(diagram.contains("class \"Customer\" as p_Customer {"), diagram);
+        assertTrue(diagram.contains("p_Order --> p_Customer\n"), diagram);
+    }
+
+    @Test
+    public void sameSimpleNameInDifferentPackagesGivesTwoNodes() throws IOException {
+        // a.Foo holds a b.Foo and extends nothing; b.Foo extends c.Base
+        addClass("a/Foo", "java/lang/Object", "b/Foo");
+        addClass("b/Foo", "c/Base");
+        addClass("c/Base", "java/lang/Object");
+
+        String diagram = generate();
+
+        assertTrue(diagram.contains("class \"Foo\" as a_Foo {"), diagram);
+        assertTrue(diagram.contains("class \"Foo\" as b_Foo {"), diagram);
+        assertTrue(diagram.contains("a_Foo --> b_Foo\n"), diagram);
+        assertTrue(diagram.contains("b_Foo --|> c_Base\n"), diagram);
+        assertFalse(diagram.contains("a_Foo --|>"), diagram);
+        assertFalse(diagram.contains(" Foo "), diagram);
+    }
+
+    @Test
+    public void namesThatMapToTheSameAliasStayApart() throws IOException {
+        // Both become a_b_C, so the second one needs a suffix
+        addClass("a/b_C", "java/lang/Object", "a_b/C");
+        addClass("a_b/C", "java/lang/Object");
+
+        String diagram = generate();
+
+        assertTrue(diagram.contains("class \"b_C\" as a_b_C {"), diagram);
+        assertTrue(diagram.contains("class \"C\" as a_b_C_2 {"), diagram);
+        assertEquals(1, diagram.split("a_b_C --> a_b_C_2\n", -1).length - 1, diagram);
+    }
+
+    /**
+     * A class with the given superclass and one private field of each of the given types.
+     */
+    private void addClass(String internalName, String superName, String... fieldTypes) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, superName, null);
+        for (int i = 0; i < fieldTypes.length; i++) {
+            writer.visitField(Opcodes.ACC_PRIVATE, "field" + i, "L" + fieldTypes[i] + ";", null, null).visitEnd();
+        }
+        writer.visitEnd();
+        classFiles.put(internalName + ".class", writer.toByteArray());
+    }
+}
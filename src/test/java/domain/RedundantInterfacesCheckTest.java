@@ -0,0 +1,78 @@
+package domain;
+
+import datasource.AsmConverter;
+import domain.internal_representation.AnalysisDepth;
+import domain.internal_representation.Context;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RedundantInterfacesCheckTest {
+
+    private final Map<String, byte[]> classFiles = new HashMap<>();
+
+    private List<Violation> analyze() {
+        Context context = new AsmConverter(1, null).buildContext(classFiles, "classes", AnalysisDepth.HEADER);
+        return new RedundantInterfacesCheck().analyze(context);
+    }
+
+    @Test
+    public void interfaceOfTheSuperclassIsRedundant() {
+        addClass("p/Base", "java/lang/Object", "java/lang/Runnable");
+        addClass("p/Child", "p/Base", "java/lang/Runnable");
+
+        List<Violation> violations = analyze();
+
+        assertEquals(1, violations.size());
+        assertEquals("Child", violations.get(0).getClassName());
+        assertEquals("p.Child", violations.get(0).getQualifiedName());
+    }
+
+    @Test
+    public void interfaceOfAnAncestorIsRedundant() {
+        addClass("p/Base", "java/lang/Object", "java/lang/Runnable");
+        addClass("p/Middle", "p/Base");
+        addClass("p/Child", "p/Middle", "java/lang/Runnable");
+
+        assertEquals(1, analyze().size());
+    }
+
+    @Test
+    public void superclassIsFoundByQualifiedName() {
+        // Only a.Base implements Runnable; b.Base shares its simple name but not its interfaces
+        addClass("a/Base", "java/lang/Object", "java/lang/Runnable");
+        addClass("b/Base", "java/lang/Object");
+        addClass("c/OfA", "a/Base", "java/lang/Runnable");
+        addClass("c/OfB", "b/Base", "java/lang/Runnable");
+
+        List<Violation> violations = analyze();
+
+        assertEquals(1, violations.size());
+        assertEquals("c.OfA", violations.get(0).getQualifiedName());
+    }
+
+    @Test
+    public void interfacesAreComparedByQualifiedName() {
+        // Two interfaces called Listener; the child declares the one its superclass does not implement
+        addClass("a/Listener", "java/lang/Object");
+        addClass("b/Listener", "java/lang/Object");
+        addClass("p/Base", "java/lang/Object", "a/Listener");
+        addClass("p/Child", "p/Base", "b/Listener");
+
+        assertTrue(analyze().isEmpty());
+    }
+
+    private void addClass(String internalName, String superName, String... interfaces) {
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, superName, interfaces);
+        writer.visitEnd();
+        classFiles.put(internalName + ".class", writer.toByteArray());
+    }
+}
@@ -0,0 +1,226 @@
+package domain.internal_representation;
+
+import datasource.AsmConverter;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarModelTest {
+
+    // Real classes with interfaces, enums, statics, arrays, parameters and locals
+    private static final Class<?>[] SAMPLES = {
+            ColumnarModel.class, SymbolTable.class, DependencyInfo.class, Visibility.class,
+            AnalysisDepth.class, ClassInfo.class, MethodInfo.class, BytecodeSource.class
+    };
+
+    @Test
+    public void viewsMatchTheObjectModel() throws IOException {
+        AsmConverter converter = new AsmConverter(1, null);
+        List<ClassInfo> classes = new ArrayList<>();
+        for (Class<?> sample : SAMPLES) {
+            classes.add(converter.convertClass(readClass(sample)));
+        }
+
+        List<ClassInfo> views = new ColumnarModel(classes, converter.getSymbolTable()).getClasses();
+
+        assertEquals(classes.size(), views.size());
+        for (int i = 0; i < classes.size(); i++) {
+            assertSameClass(classes.get(i), views.get(i), converter.getSymbolTable(), converter.getSymbolTable());
+        }
+    }
+
+    @Test
+    public void classesAddedOneByOneGrowTheColumns() {
+        AsmConverter converter = new AsmConverter(1, null);
+        // Sized for one class, so every column has to grow several times
+        ColumnarModel model = new ColumnarModel(converter.getSymbolTable(), 1);
+        List<ClassInfo> classes = new ArrayList<>();
+        List<ClassInfo> added = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ClassInfo classInfo = converter.convertClass(createClass("p/C" + i, i % 7, i % 5, i % 4));
+            classes.add(classInfo);
+            added.add(model.add(classInfo));
+        }
+        model.trimToSize();
+
+        List<ClassInfo> views = model.getClasses();
+        assertEquals(200, views.size());
+        for (int i = 0; i < classes.size(); i++) {
+            assertSame(added.get(i), views.get(i));
+            assertSameClass(classes.get(i), views.get(i), converter.getSymbolTable(), converter.getSymbolTable());
+        }
+    }
+
+    @Test
+    public void emptyModelHasNoClasses() {
+        ColumnarModel model = new ColumnarModel(new SymbolTable(), 0);
+        model.trimToSize();
+
+        assertTrue(model.getClasses().isEmpty());
+    }
+
+    @Test
+    public void memberNamesStayOutOfTheTypeTable() {
+        AsmConverter converter = new AsmConverter(1, null);
+        ClassInfo classInfo = converter.convertClass(createClass("p/A", 2, 2, 2));
+        SymbolTable symbols = converter.getSymbolTable();
+        int typeCount = symbols.size();
+
+        ClassInfo view = new ColumnarModel(Arrays.asList(classInfo), symbols).getClasses().get(0);
+
+        assertEquals(typeCount, symbols.size());
+        assertEquals(-1, symbols.find("p"));
+        assertEquals(-1, symbols.find("field0"));
+        assertEquals(-1, symbols.find("method1"));
+        assertEquals(-1, symbols.find("local0"));
+        assertEquals("p", view.getPackageName());
+        assertEquals("field0", view.getFields().get(0).getName());
+        assertEquals("method1", view.getMethods().get(1).getName());
+        assertEquals("local0", view.getMethods().get(0).getLocalVariables().get(0).getName());
+    }
+
+    @Test
+    public void memberListsCheckTheirBounds() {
+        AsmConverter converter = new AsmConverter(1, null);
+        ClassInfo view = new ColumnarModel(Arrays.asList(converter.convertClass(createClass("p/A", 1, 1, 1))),
+                converter.getSymbolTable()).getClasses().get(0);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getFields().get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getMethods().get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getInterfaceId(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> view.getMethods().get(0).getParameterTypeId(2));
+    }
+
+    @Test
+    public void compactConversionMatchesTheObjectModel() {
+        // More classes than one conversion chunk, so the columns are filled across chunks
+        Map<String, byte[]> classFiles = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            classFiles.put(String.format("p/C%05d.class", i), createClass("p/C" + i, i % 3, i % 4, i % 2));
+        }
+
+        Context objects = new AsmConverter(4, null).buildContext(classFiles, "classes", AnalysisDepth.INSTRUCTIONS);
+        AsmConverter compactConverter = new AsmConverter(4, null);
+        compactConverter.setColumnarModel(true);
+        Context columns = compactConverter.buildContext(classFiles, "classes", AnalysisDepth.INSTRUCTIONS);
+
+        assertEquals(objects.getClassCount(), columns.getClassCount());
+        assertEquals(objects.getDependencyInfo().getEdgeCount(), columns.getDependencyInfo().getEdgeCount());
+        for (int i = 0; i < objects.getClassCount(); i++) {
+            assertSameClass(objects.getClasses().get(i), columns.getClasses().get(i), objects.getSymbolTable(), columns.getSymbolTable());
+        }
+    }
+
+    private static void assertSameClass(ClassInfo expected, ClassInfo actual, SymbolTable expectedSymbols, SymbolTable actualSymbols) {
+        String name = expected.getQualifiedName();
+        assertEquals(expected.getName(), actual.getName(), name);
+        assertEquals(expected.getQualifiedName(), actual.getQualifiedName(), name);
+        assertEquals(expected.getPackageName(), actual.getPackageName(), name);
+        assertEquals(expected.getSuperClass(), actual.getSuperClass(), name);
+        assertSameSymbol(expectedSymbols, expected.getSuperClassId(), actualSymbols, actual.getSuperClassId(), name);
+        assertEquals(expected.getInterfaces(), actual.getInterfaces(), name);
+        assertEquals(expected.getInterfaceCount(), actual.getInterfaceCount(), name);
+        for (int i = 0; i < expected.getInterfaceCount(); i++) {
+            assertSameSymbol(expectedSymbols, expected.getInterfaceId(i), actualSymbols, actual.getInterfaceId(i), name);
+        }
+        assertEquals(expected.isPublic(), actual.isPublic(), name);
+        assertEquals(expected.isInterface(), actual.isInterface(), name);
+        assertEquals(expected.isAbstract(), actual.isAbstract(), name);
+        assertEquals(expected.isEnum(), actual.isEnum(), name);
+
+        assertEquals(expected.getFields().size(), actual.getFields().size(), name);
+        for (int f = 0; f < expected.getFields().size(); f++) {
+            FieldInfo expectedField = expected.getFields().get(f);
+            FieldInfo actualField = actual.getFields().get(f);
+            String field = name + "." + expectedField.getName();
+            assertEquals(expectedField.getName(), actualField.getName(), field);
+            assertEquals(expectedField.getClassName(), actualField.getClassName(), field);
+            assertEquals(expectedField.getType(), actualField.getType(), field);
+            assertSameSymbol(expectedSymbols, expectedField.getTypeId(), actualSymbols, actualField.getTypeId(), field);
+            assertEquals(expectedField.getVisibility(), actualField.getVisibility(), field);
+            assertEquals(expectedField.isStatic(), actualField.isStatic(), field);
+            assertEquals(expectedField.isFinal(), actualField.isFinal(), field);
+        }
+
+        assertEquals(expected.getMethods().size(), actual.getMethods().size(), name);
+        for (int m = 0; m < expected.getMethods().size(); m++) {
+            MethodInfo expectedMethod = expected.getMethods().get(m);
+            MethodInfo actualMethod = actual.getMethods().get(m);
+            String method = name + "." + expectedMethod.getName();
+            assertEquals(expectedMethod.getName(), actualMethod.getName(), method);
+            assertEquals(expectedMethod.getClassName(), actualMethod.getClassName(), method);
+            assertEquals(expectedMethod.getReturnType(), actualMethod.getReturnType(), method);
+            assertSameSymbol(expectedSymbols, expectedMethod.getReturnTypeId(), actualSymbols, actualMethod.getReturnTypeId(), method);
+            assertEquals(expectedMethod.getParameterTypes(), actualMethod.getParameterTypes(), method);
+            for (int p = 0; p < expectedMethod.getParameterCount(); p++) {
+                assertSameSymbol(expectedSymbols, expectedMethod.getParameterTypeId(p), actualSymbols, actualMethod.getParameterTypeId(p), method);
+            }
+            assertEquals(expectedMethod.getVisibility(), actualMethod.getVisibility(), method);
+            assertEquals(expectedMethod.isStatic(), actualMethod.isStatic(), method);
+            assertEquals(expectedMethod.isAbstract(), actualMethod.isAbstract(), method);
+
+            List<LocalVariableInfo> expectedLocals = expectedMethod.getLocalVariables();
+            List<LocalVariableInfo> actualLocals = actualMethod.getLocalVariables();
+            assertEquals(expectedLocals.size(), actualLocals.size(), method);
+            for (int l = 0; l < expectedLocals.size(); l++) {
+                assertEquals(expectedLocals.get(l).getName(), actualLocals.get(l).getName(), method);
+                assertEquals(expectedLocals.get(l).getType(), actualLocals.get(l).getType(), method);
+                assertSameSymbol(expectedSymbols, expectedLocals.get(l).getTypeId(), actualSymbols, actualLocals.get(l).getTypeId(), method);
+            }
+        }
+    }
+
+    // Ids only mean something within their own table (parallel conversions intern in any order), so compare what they name
+    private static void assertSameSymbol(SymbolTable expectedSymbols, int expectedId, SymbolTable actualSymbols, int actualId, String message) {
+        assertEquals(expectedId < 0 ? null : expectedSymbols.getName(expectedId), actualId < 0 ? null : actualSymbols.getName(actualId), message);
+    }
+
+    /**
+     * A class implementing Runnable, with the given numbers of fields, methods with two parameters, and locals per method.
+     */
+    private static byte[] createClass(String internalName, int fields, int methods, int locals) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object",
+                new String[] {"java/lang/Runnable"});
+        for (int f = 0; f < fields; f++) {
+            int access = f % 2 == 0 ? Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL : Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC;
+            writer.visitField(access, "field" + f, f % 3 == 0 ? "[Ljava/lang/String;" : "I", null, null).visitEnd();
+        }
+        for (int m = 0; m < methods; m++) {
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "method" + m, "(JLjava/util/List;)Ljava/lang/Object;", null, null);
+            method.visitCode();
+            Label start = new Label();
+            Label end = new Label();
+            method.visitLabel(start);
+            method.visitInsn(Opcodes.ACONST_NULL);
+            method.visitLabel(end);
+            method.visitInsn(Opcodes.ARETURN);
+            for (int l = 0; l < locals; l++) {
+                method.visitLocalVariable("local" + l, "Ljava/util/Map;", null, start, end, 4 + l);
+            }
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] readClass(Class<?> type) throws IOException {
+        String resource = type.getName().substring(type.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = type.getResourceAsStream(resource)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package domain.internal_representation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DependencyInfoTest {
+
+    private SymbolTable symbols;
+    private DependencyInfo graph;
+
+    @BeforeEach
+    public void setUp() {
+        symbols = new SymbolTable();
+        int[] ids = {symbols.intern("p.A"), symbols.intern("p.B"), symbols.intern("p.C")};
+        graph = new DependencyInfo(symbols, ids);
+    }
+
+    @Test
+    public void setDependencyAddsEdgeInBothDirections() {
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+
+        assertEquals(DependencyType.HAS_A, graph.getDependency(0, 1));
+        assertEquals(DependencyType.NONE, graph.getDependency(1, 0));
+        assertEquals(1, graph.getSuccessorCount(0));
+        assertEquals(1, graph.getSuccessor(0, 0));
+        assertEquals(1, graph.getPredecessorCount(1));
+        assertEquals(0, graph.getPredecessor(1, 0));
+        assertEquals(1, graph.getEdgeCount());
+    }
+
+    @Test
+    public void setDependencyOverwritesTypeWithoutAddingEdge() {
+        graph.setDependency(0, 1, DependencyType.GENERAL);
+        graph.setDependency(0, 1, DependencyType.IS_A);
+
+        assertEquals(DependencyType.IS_A, graph.getDependency(0, 1));
+        assertEquals(1, graph.getEdgeCount());
+        assertEquals(1, graph.getPredecessorCount(1));
+    }
+
+    @Test
+    public void settingNoneRemovesEdgeAndPredecessor() {
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+        graph.setDependency(0, 2, DependencyType.IMPLEMENTS);
+        graph.setDependency(2, 1, DependencyType.GENERAL);
+
+        graph.setDependency(0, 1, DependencyType.NONE);
+
+        assertEquals(DependencyType.NONE, graph.getDependency(0, 1));
+        assertEquals(DependencyType.IMPLEMENTS, graph.getDependency(0, 2));
+        assertEquals(1, graph.getSuccessorCount(0));
+        assertEquals(1, graph.getPredecessorCount(1));
+        assertEquals(2, graph.getPredecessor(1, 0));
+        assertEquals(2, graph.getEdgeCount());
+    }
+
+    @Test
+    public void settingNoneOnMissingEdgeDoesNothing() {
+        graph.setDependency(1, 2, DependencyType.NONE);
+
+        assertEquals(0, graph.getEdgeCount());
+        assertEquals(0, graph.getSuccessorCount(1));
+    }
+
+    @Test
+    public void copyWithoutDependenciesRemovesOnlyOutgoingEdges() {
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+        graph.setDependency(0, 2, DependencyType.GENERAL);
+        graph.setDependency(1, 0, DependencyType.IS_A);
+
+        DependencyInfo copy = graph.copyWithoutDependencies(new int[] {0});
+
+        assertEquals(0, copy.getSuccessorCount(0));
+        assertEquals(0, copy.getPredecessorCount(1));
+        assertEquals(0, copy.getPredecessorCount(2));
+        assertEquals(DependencyType.IS_A, copy.getDependency(1, 0));
+        assertEquals(1, copy.getPredecessorCount(0));
+        assertEquals(1, copy.getEdgeCount());
+        assertEquals("p.B", copy.getQualifiedClassName(1));
+        assertEquals(2, copy.getClassIndex("p.C"));
+    }
+
+    @Test
+    public void changingACopyLeavesTheOriginalAsItWas() {
+        graph.setDependency(0, 1, DependencyType.HAS_A);
+        graph.setDependency(0, 2, DependencyType.GENERAL);
+        graph.setDependency(2, 1, DependencyType.IS_A);
+
+        DependencyInfo copy = graph.copyWithoutDependencies(new int[] {0});
+        copy.setDependency(0, 2, DependencyType.HAS_MANY);
+        copy.setDependency(2, 1, DependencyType.IMPLEMENTS);
+        copy.setDependency(1, 0, DependencyType.GENERAL);
+        copy.setDependency(2, 0, DependencyType.GENERAL);
+        copy.setDependency(2, 1, DependencyType.NONE);
+
+        assertEquals(DependencyType.HAS_A, graph.getDependency(0, 1));
+        assertEquals(DependencyType.GENERAL, graph.getDependency(0, 2));
+        assertEquals(DependencyType.IS_A, graph.getDependency(2, 1));
+        assertEquals(DependencyType.NONE, graph.getDependency(1, 0));
+        assertEquals(2, graph.getPredecessorCount(1));
+        assertEquals(0, graph.getPredecessorCount(0));
+        assertEquals(3, graph.getEdgeCount());
+
+        assertEquals(DependencyType.HAS_MANY, copy.getDependency(0, 2));
+        assertEquals(DependencyType.NONE, copy.getDependency(2, 1));
+        assertEquals(2, copy.getPredecessorCount(0));
+        assertEquals(3, copy.getEdgeCount());
+    }
+
+    @Test
+    public void edgeListsGrowPastInitialCapacity() {
+        SymbolTable many = new SymbolTable();
+        int[] ids = new int[20];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = many.intern("p.C" + i);
+        }
+        DependencyInfo wide = new DependencyInfo(many, ids);
+        for (int i = 1; i < ids.length; i++) {
+            wide.setDependency(0, i, DependencyType.GENERAL);
+        }
+
+        assertEquals(19, wide.getSuccessorCount(0));
+        assertEquals(19, wide.getEdgeCount());
+        for (int i = 1; i < ids.length; i++) {
+            assertEquals(DependencyType.GENERAL, wide.getDependency(0, i));
+        }
+    }
+
+    @Test
+    public void namesResolveByQualifiedName() {
+        graph.setDependency("p.A", "p.C", DependencyType.HAS_MANY);
+
+        assertEquals(DependencyType.HAS_MANY, graph.getDependency("p.A", "p.C"));
+        assertEquals(2, graph.getClassIndex("p.C"));
+        assertEquals(-1, graph.getClassIndex("C"));
+        assertEquals("C", graph.getClassName(2));
+        assertEquals("p.C", graph.getQualifiedClassName(2));
+        assertEquals(DependencyType.NONE, graph.getDependency("p.A", "q.Unknown"));
+    }
+}
@@ -0,0 +1,182 @@
+package domain.internal_representation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    public void internReturnsTheSameIdForEqualNames() {
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.intern("com.example.Order");
+
+        assertEquals(id, symbols.intern(new String("com.example.Order")));
+        assertEquals(id, symbols.find("com.example.Order"));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void idsAreDenseInFirstSeenOrder() {
+        SymbolTable symbols = new SymbolTable();
+
+        assertEquals(0, symbols.intern("int"));
+        assertEquals(1, symbols.intern("a.B"));
+        assertEquals(2, symbols.intern("a.C"));
+        assertEquals(1, symbols.intern("a.B"));
+        assertEquals(3, symbols.size());
+    }
+
+    @Test
+    public void findDoesNotAddNames() {
+        SymbolTable symbols = new SymbolTable();
+        symbols.intern("a.B");
+
+        assertEquals(-1, symbols.find("a.C"));
+        assertEquals(1, symbols.size());
+    }
+
+    @Test
+    public void namesAreCanonicalAndHaveASimpleForm() {
+        SymbolTable symbols = new SymbolTable();
+        String name = new String("com.example.Order");
+        int id = symbols.intern(name);
+        int primitive = symbols.intern("long");
+
+        assertSame(name, symbols.getName(symbols.intern("com.example.Order")));
+        assertEquals("Order", symbols.getSimpleName(id));
+        assertEquals("long", symbols.getSimpleName(primitive));
+    }
+
+    @Test
+    public void sameSimpleNameInDifferentPackagesStaysApart() {
+        SymbolTable symbols = new SymbolTable();
+        int first = symbols.intern("a.Foo");
+        int second = symbols.intern("b.Foo");
+
+        assertNotEquals(first, second);
+        assertEquals(symbols.getSimpleName(first), symbols.getSimpleName(second));
+    }
+
+    @Test
+    public void arrayTypesPointAtTheirElementType() {
+        SymbolTable symbols = new SymbolTable();
+        int array = symbols.intern("a.B[][]");
+        int inner = symbols.find("a.B[]");
+        int element = symbols.find("a.B");
+
+        assertEquals(0, element);
+        assertEquals(1, inner);
+        assertEquals(2, array);
+        assertEquals(inner, symbols.getElementId(array));
+        assertEquals(element, symbols.getElementId(inner));
+        assertEquals(element, symbols.getElementId(element));
+        assertEquals("B[][]", symbols.getSimpleName(array));
+    }
+
+    @Test
+    public void growthKeepsEveryId() {
+        SymbolTable symbols = new SymbolTable();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, symbols.intern("p" + (i % 7) + ".C" + i));
+        }
+
+        assertEquals(10_000, symbols.size());
+        for (int i = 0; i < 10_000; i++) {
+            String name = "p" + (i % 7) + ".C" + i;
+            assertEquals(i, symbols.find(name));
+            assertEquals(name, symbols.getName(i));
+            assertEquals("C" + i, symbols.getSimpleName(i));
+        }
+    }
+
+    @Test
+    public void concurrentInternGivesOneIdPerNameWhileGrowing() throws InterruptedException {
+        SymbolTable symbols = new SymbolTable();
+        int threadCount = 8;
+        int namesPerThread = 20_000;
+        // Threads overlap on half their names, so the same name is often interned by several threads at once
+        int[][] ids = new int[threadCount][namesPerThread];
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < namesPerThread; i++) {
+                        ids[thread][i] = symbols.intern(nameFor(thread, i));
+                        // A name found right after interning must resolve to itself, even mid-growth
+                        if (!symbols.getName(ids[thread][i]).equals(nameFor(thread, i))) {
+                            throw new AssertionError("Wrong name for id " + ids[thread][i]);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Failures: " + failures);
+        int distinct = namesPerThread / 2 + threadCount * (namesPerThread / 2);
+        assertEquals(distinct, symbols.size());
+
+        boolean[] used = new boolean[distinct];
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < namesPerThread; i++) {
+                String name = nameFor(t, i);
+                assertEquals(ids[t][i], symbols.find(name));
+                assertEquals(name, symbols.getName(ids[t][i]));
+                used[ids[t][i]] = true;
+            }
+        }
+        for (boolean isUsed : used) {
+            assertTrue(isUsed);
+        }
+    }
+
+    @Test
+    public void lookupsDuringGrowthNeverReturnAnotherName() throws InterruptedException {
+        SymbolTable symbols = new SymbolTable();
+        int count = 50_000;
+        AtomicBoolean done = new AtomicBoolean();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                for (int i = 0; i < count; i += 97) {
+                    int id = symbols.find("r.C" + i);
+                    if (id != -1 && !symbols.getName(id).equals("r.C" + i)) {
+                        failures.add("r.C" + i + " found as " + symbols.getName(id));
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < count; i++) {
+            symbols.intern("r.C" + i);
+        }
+        done.set(true);
+        reader.join();
+
+        assertTrue(failures.isEmpty(), "Failures: " + failures);
+        assertEquals(count, symbols.size());
+    }
+
+    private static String nameFor(int thread, int i) {
+        return i % 2 == 0 ? "shared.C" + i : "t" + thread + ".C" + i;
+    }
+}
@@ -0,0 +1,46 @@
+package presentation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonOutputTest {
+
+    @Test
+    public void plainTextIsOnlyQuoted() throws IOException {
+        assertEquals("\"Order\"", write("Order"));
+        assertEquals("\"\"", write(""));
+    }
+
+    @Test
+    public void quotesAndBackslashesAreEscaped() throws IOException {
+        assertEquals("\"Field 'a' \\\"b\\\" in C:\\\\tmp\"", write("Field 'a' \"b\" in C:\\tmp"));
+    }
+
+    @Test
+    public void controlCharactersAreEscaped() throws IOException {
+        assertEquals("\"a\\nb\\rc\\td\"", write("a\nb\rc\td"));
+        assertEquals("\"\\u0000\\u0008\\u001f\"", write("\u0000\b\u001f"));
+    }
+
+    @Test
+    public void nonAsciiTextIsKeptAsIs() throws IOException {
+        assertEquals("\"Größe \u2013 \u00e9t\u00e9\"", write("Größe \u2013 \u00e9t\u00e9"));
+    }
+
+    @Test
+    public void fieldIsNameColonValue() throws IOException {
+        StringWriter out = new StringWriter();
+        JsonOutput.writeField(out, "class", "a\"b");
+        assertEquals("\"class\":\"a\\\"b\"", out.toString());
+    }
+
+    private static String write(String value) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonOutput.writeString(out, value);
+        return out.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package presentation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LintDaemonTest {
+
+    @Test
+    public void selectionsOfTheSameChecksShareAKey() {
+        assertEquals("1,2", LintDaemon.normalizeChecks("1,2"));
+        assertEquals("1,2", LintDaemon.normalizeChecks("2,1"));
+        assertEquals("1,2", LintDaemon.normalizeChecks(" 1, 2,1,"));
+    }
+
+    @Test
+    public void allIsKeptAsItIs() {
+        assertEquals("all", LintDaemon.normalizeChecks(" ALL "));
+        assertEquals("1,all", LintDaemon.normalizeChecks("all,1"));
+    }
+}
@@ -0,0 +1,47 @@
+package presentation;
+
+import domain.Violation;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NdjsonReportWriterTest {
+
+    @Test
+    public void eachViolationIsOneEscapedLine() {
+        StringWriter out = new StringWriter();
+        NdjsonReportWriter writer = new NdjsonReportWriter(out);
+        writer.accept(new Violation("Naming Convention Check", "Odd", "Name \"odd\"\nis\tbad"));
+        writer.accept(new Violation("Naming Convention Check", "Next", "ok"));
+        writer.finish();
+
+        assertEquals("{\"check\":\"Naming Convention Check\",\"class\":\"Odd\",\"message\":\"Name \\\"odd\\\"\\nis\\tbad\"}\n"
+                + "{\"check\":\"Naming Convention Check\",\"class\":\"Next\",\"message\":\"ok\"}\n", out.toString());
+    }
+
+    @Test
+    public void rootIsWrittenFirst() {
+        StringWriter out = new StringWriter();
+        NdjsonReportWriter writer = new NdjsonReportWriter(out, "C:\\build\\classes");
+        writer.accept(new Violation("Check", "A", "m"));
+        writer.finish();
+
+        assertEquals("{\"root\":\"C:\\\\build\\\\classes\",\"check\":\"Check\",\"class\":\"A\",\"message\":\"m\"}\n", out.toString());
+    }
+
+    @Test
+    public void qualifiedNameTellsSameNamedClassesApart() {
+        StringWriter out = new StringWriter();
+        NdjsonReportWriter writer = new NdjsonReportWriter(out);
+        writer.accept(new Violation("Check", "Foo", "m", "a.Foo"));
+        writer.accept(new Violation("Check", "Foo", "m", "b.Foo"));
+        writer.accept(new Violation("Check", "TimeBudget", "stopped", null));
+        writer.finish();
+
+        assertEquals("{\"check\":\"Check\",\"class\":\"Foo\",\"qualifiedName\":\"a.Foo\",\"message\":\"m\"}\n"
+                + "{\"check\":\"Check\",\"class\":\"Foo\",\"qualifiedName\":\"b.Foo\",\"message\":\"m\"}\n"
+                + "{\"check\":\"Check\",\"class\":\"TimeBudget\",\"message\":\"stopped\"}\n", out.toString());
+    }
+}
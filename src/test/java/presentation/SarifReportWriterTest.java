@@ -0,0 +1,76 @@
+package presentation;
+
+import domain.LintCheck;
+import domain.NamingConventionCheck;
+import domain.PublicMutableFieldsCheck;
+import domain.Violation;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SarifReportWriterTest {
+
+    private final LintCheck naming = new NamingConventionCheck();
+    private final LintCheck fields = new PublicMutableFieldsCheck();
+
+    @Test
+    public void emptyReportIsACompleteDocument() {
+        String report = write(Arrays.asList(naming));
+
+        assertTrue(report.startsWith("{\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\",\"version\":\"2.1.0\""));
+        assertTrue(report.contains("\"results\":[\n\n]"));
+        assertTrue(report.endsWith("\"toolExecutionNotifications\":[]}]}]}\n"));
+    }
+
+    @Test
+    public void resultIsLocatedByQualifiedName() {
+        String report = write(Arrays.asList(naming, fields),
+                new Violation(fields.getName(), "Order", "Field 'total' is public and mutable", "com.shop.Order"));
+
+        assertTrue(report.contains("{\"ruleId\":\"PublicMutableFieldsCheck\",\"ruleIndex\":1,\"level\":\"warning\","
+                + "\"message\":{\"text\":\"Field 'total' is public and mutable\"},"
+                + "\"locations\":[{\"logicalLocations\":[{\"name\":\"Order\",\"fullyQualifiedName\":\"com.shop.Order\",\"kind\":\"type\"}]}]}"));
+    }
+
+    @Test
+    public void messagesAreEscaped() {
+        String report = write(Arrays.asList(naming),
+                new Violation(naming.getName(), "Odd", "Name \"odd\\name\"\nnext line", "p.Odd"));
+
+        assertTrue(report.contains("\"text\":\"Name \\\"odd\\\\name\\\"\\nnext line\""));
+    }
+
+    @Test
+    public void checkSelectedTwiceIsOneRule() {
+        String report = write(Arrays.asList(naming, naming, fields),
+                new Violation(fields.getName(), "Order", "message", "p.Order"));
+
+        assertEquals(report.indexOf("\"id\":\"NamingConventionCheck\""), report.lastIndexOf("\"id\":\"NamingConventionCheck\""));
+        assertTrue(report.contains("\"ruleId\":\"PublicMutableFieldsCheck\",\"ruleIndex\":1,"));
+    }
+
+    @Test
+    public void violationWithoutClassIsANotification() {
+        String report = write(Arrays.asList(naming),
+                new Violation(naming.getName(), "TimeBudget", "Stopped when its time budget ran out"));
+
+        assertTrue(report.contains("\"results\":[\n\n]"));
+        assertFalse(report.contains("TimeBudget"));
+        assertTrue(report.contains("\"toolExecutionNotifications\":[\n{\"associatedRule\":{\"id\":\"NamingConventionCheck\",\"index\":0},"
+                + "\"level\":\"warning\",\"message\":{\"text\":\"Stopped when its time budget ran out\"}}]"));
+    }
+
+    private static String write(List<LintCheck> checks, Violation... violations) {
+        StringWriter out = new StringWriter();
+        SarifReportWriter writer = new SarifReportWriter(out, checks);
+        for (Violation violation : violations) {
+            writer.accept(violation);
+        }
+        writer.finish();
+        return out.toString();
+    }
+}